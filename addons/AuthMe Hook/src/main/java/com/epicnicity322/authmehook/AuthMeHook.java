@@ -20,6 +20,7 @@ package com.epicnicity322.authmehook;
 import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
 import com.epicnicity322.epicpluginlib.core.util.PathUtils;
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.sound.PlayQueue;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
 import com.epicnicity322.playmoresounds.bukkit.sound.events.PlayRichSoundEvent;
 import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
@@ -34,13 +35,11 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
-import org.bukkit.scheduler.BukkitScheduler;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.file.Path;
 
 public class AuthMeHook extends PMSAddon implements Listener {
-    private static final @NotNull BukkitScheduler scheduler = Bukkit.getScheduler();
     private boolean registered = false;
     private boolean preventJoin = false;
     private PlayableRichSound loginSound;
@@ -147,13 +146,13 @@ public class AuthMeHook extends PMSAddon implements Listener {
     public void onAuthMeAsyncPreLogin(AuthMeAsyncPreLoginEvent event) {
         if (loginSound != null && (event.canLogin() || !loginSound.isCancellable()))
             // Can't play sounds outside bukkit main thread.
-            scheduler.runTask(PlayMoreSounds.getInstance(), () -> loginSound.play(event.getPlayer()));
+            PlayQueue.play(loginSound, event.getPlayer());
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onAuthMeAsyncPreRegister(AuthMeAsyncPreRegisterEvent event) {
         if (registerSound != null && (event.canRegister() || !registerSound.isCancellable()))
             // Can't play sounds outside bukkit main thread.
-            scheduler.runTask(PlayMoreSounds.getInstance(), () -> registerSound.play(event.getPlayer()));
+            PlayQueue.play(registerSound, event.getPlayer());
     }
 }
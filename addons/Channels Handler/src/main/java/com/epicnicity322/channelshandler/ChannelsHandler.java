@@ -19,6 +19,8 @@ package com.epicnicity322.channelshandler;
 
 import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.sound.PerChildSoundEvents;
+import com.epicnicity322.playmoresounds.bukkit.sound.PlayQueue;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableSound;
 import com.epicnicity322.playmoresounds.bukkit.sound.events.PlaySoundEvent;
@@ -36,6 +38,8 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -47,7 +51,11 @@ import java.util.regex.Pattern;
  */
 @ThreadSafe
 public class ChannelsHandler {
-    protected final @NotNull HashMap<String, ChannelSound> channelSounds = new HashMap<>();
+    /**
+     * The sounds of each channel, replaced as a whole on {@link #reloadListener()}. The map is never modified after it's
+     * published, so chat threads can read it without locking.
+     */
+    protected volatile @NotNull Map<String, ChannelSound> channelSounds = Collections.emptyMap();
     protected final @NotNull AtomicBoolean listenerRegistered = new AtomicBoolean(false);
     private final @NotNull String pluginName;
     private final @NotNull Listener listener;
@@ -99,6 +107,7 @@ public class ChannelsHandler {
         else
             soundPreventerListener = new Listener() {
                 @EventHandler(priority = EventPriority.LOWEST)
+                @PerChildSoundEvents
                 public void onPlaySound(PlaySoundEvent event) {
                     PlayableSound sound = event.getSound();
                     ConfigurationSection section = sound.getSection();
@@ -134,8 +143,8 @@ public class ChannelsHandler {
      * registered. If no sound is enabled then the listener is unregistered. Also reloads the sounds and chat words set
      * to play on chat.
      */
-    public void reloadListener() {
-        channelSounds.clear();
+    public synchronized void reloadListener() {
+        HashMap<String, ChannelSound> channelSounds = new HashMap<>();
         Configuration channels = ChannelsHandlerAddon.CHANNELS_CONFIG.getConfiguration();
         ConfigurationSection pluginSection = channels.getConfigurationSection(pluginName);
 
@@ -144,7 +153,7 @@ public class ChannelsHandler {
                 if (!(channel.getValue() instanceof ConfigurationSection)) continue;
                 ConfigurationSection channelSection = (ConfigurationSection) channel.getValue();
                 ConfigurationSection chatWordsSection = channelSection.getConfigurationSection("Chat Words");
-                HashMap<Pattern, PlayableRichSound> chatWordSounds = null;
+                ArrayList<ChatWord> chatWordSounds = null;
 
                 if (chatWordsSection != null) {
                     for (Map.Entry<String, Object> chatWord : chatWordsSection.getNodes().entrySet()) {
@@ -154,8 +163,10 @@ public class ChannelsHandler {
                         if (chatWordSection.getBoolean("Enabled").orElse(false)) {
                             try {
                                 PlayableRichSound chatWordSound = new PlayableRichSound(chatWordSection);
-                                if (chatWordSounds == null) chatWordSounds = new HashMap<>();
-                                chatWordSounds.put(Pattern.compile(".*\\b" + Pattern.quote(chatWord.getKey().toLowerCase()) + "\\b.*"), chatWordSound);
+                                if (chatWordSounds == null) chatWordSounds = new ArrayList<>();
+                                chatWordSounds.add(new ChatWord(Pattern.compile(".*\\b" + Pattern.quote(chatWord.getKey().toLowerCase()) + "\\b.*"), chatWordSound,
+                                        chatWordSection.getBoolean("Prevent Other Sounds.Chat Sound").orElse(false),
+                                        chatWordSection.getBoolean("Prevent Other Sounds.Other Chat Words").orElse(false)));
                             } catch (IllegalArgumentException ignored) {
                                 PlayMoreSounds.getConsoleLogger().log("[Channels Handler] The chat word sound '" + chatWord.getKey() + "' for the channel '" + channel.getKey() + "' is an invalid sound, so it was ignored.", ConsoleLogger.Level.WARN);
                             }
@@ -172,10 +183,12 @@ public class ChannelsHandler {
                 }
 
                 if (channelSound != null || chatWordSounds != null)
-                    channelSounds.put(channel.getKey(), new ChannelSound(channelSound, chatWordSounds));
+                    channelSounds.put(channel.getKey(), new ChannelSound(channelSound, chatWordSounds == null ? null : chatWordSounds.toArray(new ChatWord[0])));
             }
         }
 
+        this.channelSounds = Collections.unmodifiableMap(channelSounds);
+
         // Checking if listener is currently not registered and should register.
         if (channelSounds.isEmpty()) {
             if (listenerRegistered.getAndSet(false)) {
@@ -229,41 +242,57 @@ public class ChannelsHandler {
         boolean playChannelSound = channelSound.channelSound != null && (!isCancelled || !channelSound.channelSound.isCancellable());
 
         if (channelSound.chatWords != null)
-            for (Map.Entry<Pattern, PlayableRichSound> chatWord : channelSound.chatWords.entrySet()) {
-                PlayableRichSound chatWordSound = chatWord.getValue();
+            for (ChatWord chatWord : channelSound.chatWords) {
+                PlayableRichSound chatWordSound = chatWord.sound;
                 if (isCancelled && chatWordSound.isCancellable()) continue;
-                if (!chatWord.getKey().matcher(message).matches()) continue;
+                if (!chatWord.pattern.matcher(message).matches()) continue;
 
                 if (mainThread) {
                     chatWordSound.play(chatter);
                 } else {
-                    Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> chatWordSound.play(chatter));
+                    PlayQueue.play(chatWordSound, chatter);
                 }
 
-                if (chatWordSound.getSection().getBoolean("Prevent Other Sounds.Chat Sound").orElse(false))
-                    playChannelSound = false;
-                if (chatWordSound.getSection().getBoolean("Prevent Other Sounds.Other Chat Words").orElse(false)) break;
+                if (chatWord.preventChannelSound) playChannelSound = false;
+                if (chatWord.preventOtherChatWords) break;
             }
 
         if (playChannelSound) {
             if (mainThread) {
                 channelSound.channelSound.play(chatter);
             } else {
-                Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> channelSound.channelSound.play(chatter));
+                PlayQueue.play(channelSound.channelSound, chatter);
             }
         }
     }
 
     private static final class ChannelSound {
         private final @Nullable PlayableRichSound channelSound;
-        private final @Nullable HashMap<Pattern, PlayableRichSound> chatWords;
+        /**
+         * The chat words of the channel, in the order they are in channels.yml.
+         */
+        private final @Nullable ChatWord[] chatWords;
 
-        private ChannelSound(@Nullable PlayableRichSound channelSound, @Nullable HashMap<Pattern, PlayableRichSound> chatWords) {
+        private ChannelSound(@Nullable PlayableRichSound channelSound, @Nullable ChatWord[] chatWords) {
             this.channelSound = channelSound;
             this.chatWords = chatWords;
         }
     }
 
+    private static final class ChatWord {
+        private final @NotNull Pattern pattern;
+        private final @NotNull PlayableRichSound sound;
+        private final boolean preventChannelSound;
+        private final boolean preventOtherChatWords;
+
+        private ChatWord(@NotNull Pattern pattern, @NotNull PlayableRichSound sound, boolean preventChannelSound, boolean preventOtherChatWords) {
+            this.pattern = pattern;
+            this.sound = sound;
+            this.preventChannelSound = preventChannelSound;
+            this.preventOtherChatWords = preventOtherChatWords;
+        }
+    }
+
     public static abstract class ChannelSoundPreventer {
         /**
          * A boolean which value is used to prevent a player from receiving a sound channel sound. You can use this, for
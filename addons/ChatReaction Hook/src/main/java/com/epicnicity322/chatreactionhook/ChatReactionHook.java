@@ -20,6 +20,7 @@ package com.epicnicity322.chatreactionhook;
 import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
 import com.epicnicity322.epicpluginlib.core.util.PathUtils;
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.sound.PlayQueue;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
 import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
 import com.epicnicity322.playmoresounds.core.addons.PMSAddon;
@@ -153,21 +154,21 @@ public class ChatReactionHook extends PMSAddon implements Listener {
     @EventHandler
     public void onReactionFail(ReactionFailEvent event) {
         if (failSound != null) {
-            Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> failSound.play(Bukkit.getWorlds().get(0).getSpawnLocation()));
+            PlayQueue.play(failSound, null, Bukkit.getWorlds().get(0).getSpawnLocation());
         }
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onReactionStart(ReactionStartEvent event) {
         if (startSound != null && (!event.isCancelled() || !startSound.isCancellable())) {
-            Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> startSound.play(Bukkit.getWorlds().get(0).getSpawnLocation()));
+            PlayQueue.play(startSound, null, Bukkit.getWorlds().get(0).getSpawnLocation());
         }
     }
 
     @EventHandler
     public void onReactionWin(ReactionWinEvent event) {
         if (winSound != null) {
-            Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> winSound.play(event.getWinner()));
+            PlayQueue.play(winSound, event.getWinner());
         }
     }
 }
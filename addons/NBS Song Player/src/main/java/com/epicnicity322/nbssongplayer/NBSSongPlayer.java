@@ -24,6 +24,7 @@ import com.epicnicity322.playmoresounds.bukkit.command.CommandLoader;
 import com.epicnicity322.playmoresounds.bukkit.command.subcommands.ReloadSubCommand;
 import com.epicnicity322.playmoresounds.bukkit.region.SoundRegion;
 import com.epicnicity322.playmoresounds.bukkit.region.events.RegionLeaveEvent;
+import com.epicnicity322.playmoresounds.bukkit.sound.PerChildSoundEvents;
 import com.epicnicity322.playmoresounds.bukkit.sound.events.PlaySoundEvent;
 import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
 import com.epicnicity322.playmoresounds.core.addons.PMSAddon;
@@ -175,6 +176,7 @@ public final class NBSSongPlayer extends PMSAddon implements Listener {
     }
 
     @EventHandler(priority = EventPriority.LOW)
+    @PerChildSoundEvents
     public void onPlaySound(PlaySoundEvent event) {
         String sound = event.getSound().getSound();
 
@@ -26,12 +26,14 @@ import com.comphenix.protocol.events.PacketEvent;
 import com.comphenix.protocol.reflect.StructureModifier;
 import com.epicnicity322.epicpluginlib.core.config.ConfigurationHolder;
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.sound.PlayQueue;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
 import com.epicnicity322.playmoresounds.bukkit.util.VersionUtils;
 import com.epicnicity322.playmoresounds.core.PlayMoreSoundsVersion;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
 import com.epicnicity322.playmoresounds.core.sound.SoundType;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
@@ -192,7 +194,14 @@ public final class NatureSoundReplacerPacketAdapter extends PacketAdapter {
 
             event.setCancelled(true);
             // The server multiplies the xyz by 8 before sending the packet.
-            sound.play(player, new Location(player.getWorld(), xyz.read(0) / 8.0, xyz.read(1) / 8.0, xyz.read(2) / 8.0));
+            Location location = new Location(player.getWorld(), xyz.read(0) / 8.0, xyz.read(1) / 8.0, xyz.read(2) / 8.0);
+
+            // Packets can be sent from netty threads.
+            if (Bukkit.isPrimaryThread()) {
+                sound.play(player, location);
+            } else {
+                PlayQueue.play(sound, player, location);
+            }
         }
     }
 }
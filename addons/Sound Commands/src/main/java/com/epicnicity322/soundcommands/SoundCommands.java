@@ -18,6 +18,7 @@
 package com.epicnicity322.soundcommands;
 
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.sound.PerChildSoundEvents;
 import com.epicnicity322.playmoresounds.bukkit.sound.events.PlaySoundEvent;
 import com.epicnicity322.playmoresounds.core.addons.PMSAddon;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
@@ -35,6 +36,7 @@ public final class SoundCommands extends PMSAddon implements Listener {
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
+    @PerChildSoundEvents
     public void onPlaySound(PlaySoundEvent event) {
         ConfigurationSection section = event.getSound().getSection();
 
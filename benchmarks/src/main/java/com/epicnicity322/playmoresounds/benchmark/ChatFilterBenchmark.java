@@ -0,0 +1,127 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.benchmark;
+
+import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.listeners.OnAsyncPlayerChat;
+import com.epicnicity322.playmoresounds.bukkit.listeners.OnPlayerCommandPreprocess;
+import com.epicnicity322.playmoresounds.core.config.Configurations;
+import com.epicnicity322.yamlhandler.Configuration;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls the Player Chat and Send Command listeners with random messages, with a number of criteria spread through every
+ * filter of chat sounds.yml and commands.yml. The sounds of the criteria that match are played to the sender.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ChatFilterBenchmark {
+    private static final String[] FILTERS = {"Contains", "Contains SubString", "Starts With", "Ends With", "Equals Ignore Case", "Equals Exactly"};
+    private static final int MESSAGES = 256;
+    @Param({"10", "100", "1000"})
+    public int criteria;
+    private OnAsyncPlayerChat chatListener;
+    private OnPlayerCommandPreprocess commandListener;
+    private AsyncPlayerChatEvent[] chats;
+    private PlayerCommandPreprocessEvent[] commands;
+    private int next = 0;
+
+    private static String word(Random random) {
+        var word = new char[3 + random.nextInt(6)];
+        for (int i = 0; i < word.length; ++i) word[i] = (char) ('a' + random.nextInt(26));
+        return new String(word);
+    }
+
+    private static void addCriteria(Configuration configuration, String[] words, int criteria, Random random) {
+        EntityHitBenchmark.clear(configuration);
+
+        for (int i = 0; i < criteria; ++i) {
+            String criterion = FILTERS[i % FILTERS.length] + "." + words[random.nextInt(words.length)];
+
+            configuration.set(criterion + ".Enabled", true);
+            configuration.set(criterion + ".Sounds.0.Sound", "block.note_block.pling");
+            // Reading the sounds toggle of players requires the plugin to be enabled.
+            configuration.set(criterion + ".Sounds.0.Options.Ignores Disabled", true);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        MockServer.install();
+        MockServer.reset();
+        PlayMoreSounds plugin = MockServer.installPlugin();
+
+        World world = MockServer.addWorld("world");
+        Player sender = MockServer.addPlayer("Sender", new Location(world, 0, 64, 0));
+
+        var random = new Random(322);
+        var words = new String[500];
+        for (int i = 0; i < words.length; ++i) words[i] = word(random);
+
+        addCriteria(Configurations.CHAT_SOUNDS.getConfigurationHolder().getConfiguration(), words, criteria, random);
+        addCriteria(Configurations.COMMANDS.getConfigurationHolder().getConfiguration(), words, criteria, random);
+
+        // Only the sounds of the criteria play.
+        Configuration sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
+        sounds.set("Player Chat.Enabled", false);
+        sounds.set("Send Command.Enabled", false);
+
+        chatListener = new OnAsyncPlayerChat(plugin);
+        chatListener.load();
+        commandListener = new OnPlayerCommandPreprocess(plugin);
+        commandListener.load();
+
+        chats = new AsyncPlayerChatEvent[MESSAGES];
+        commands = new PlayerCommandPreprocessEvent[MESSAGES];
+        for (int i = 0; i < MESSAGES; ++i) {
+            var message = new StringBuilder();
+            int length = 4 + random.nextInt(12);
+            for (int j = 0; j < length; ++j) {
+                if (j != 0) message.append(' ');
+                message.append(words[random.nextInt(words.length)]);
+            }
+
+            chats[i] = new AsyncPlayerChatEvent(false, sender, message.toString(), new HashSet<>());
+            commands[i] = new PlayerCommandPreprocessEvent(sender, "/" + message);
+        }
+    }
+
+    @Benchmark
+    public void chat() {
+        chatListener.onAsyncPlayerChat(chats[next++ & (MESSAGES - 1)]);
+    }
+
+    @Benchmark
+    public void command() {
+        commandListener.onPlayerCommandPreprocess(commands[next++ & (MESSAGES - 1)]);
+    }
+}
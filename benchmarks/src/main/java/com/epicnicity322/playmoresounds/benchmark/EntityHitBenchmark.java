@@ -0,0 +1,128 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.benchmark;
+
+import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.listeners.OnEntityDamageByEntity;
+import com.epicnicity322.playmoresounds.core.config.Configurations;
+import com.epicnicity322.yamlhandler.Configuration;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls the Entity Hit listener with hits between random entities holding random items, with a number of hit sounds.yml
+ * conditions. The sounds of the conditions that match are played to the players around.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EntityHitBenchmark {
+    private static final EntityType[] ENTITIES = {EntityType.PLAYER, EntityType.ZOMBIE, EntityType.SKELETON,
+            EntityType.CREEPER, EntityType.SPIDER, EntityType.WOLF, EntityType.IRON_GOLEM, EntityType.VILLAGER};
+    private static final Material[] ITEMS = {Material.AIR, Material.DIAMOND_SWORD, Material.NETHERITE_AXE,
+            Material.STONE_SWORD, Material.BOW, Material.STICK, Material.IRON_AXE};
+    private static final String[] ENTITY_CRITERIA = {"any", "PLAYER", "ZOMBIE", "Contains[ZOMBIE]", "EndsWith[ER]",
+            "StartsWith[S]", "Equals[WOLF,VILLAGER]"};
+    private static final String[] ITEM_CRITERIA = {"any", "DIAMOND_SWORD", "EndsWith[SWORD]", "Contains[AXE]",
+            "StartsWith[NETHERITE]", "Equals[BOW,STICK]"};
+    private static final int HITS = 1024;
+    @Param({"10", "50", "200"})
+    public int conditions;
+    private OnEntityDamageByEntity listener;
+    private EntityDamageByEntityEvent[] hits;
+    private int hit = 0;
+
+    /**
+     * Removes every node of the configuration.
+     */
+    static void clear(Configuration configuration) {
+        for (String key : new ArrayList<>(configuration.getNodes().keySet())) configuration.set(key, null);
+    }
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setup() {
+        MockServer.install();
+        MockServer.reset();
+        PlayMoreSounds plugin = MockServer.installPlugin();
+
+        World world = MockServer.addWorld("world");
+        var location = new Location(world, 0, 64, 0);
+        // Players around the hits, that hear the sounds.
+        MockServer.addPlayers(20, location, 8, 322);
+
+        var random = new Random(322);
+        Configuration hitSounds = Configurations.HIT_SOUNDS.getConfigurationHolder().getConfiguration();
+        var names = new HashSet<String>();
+
+        clear(hitSounds);
+        while (names.size() < conditions) {
+            String name = ENTITY_CRITERIA[random.nextInt(ENTITY_CRITERIA.length)] + " hit "
+                    + ENTITIES[random.nextInt(ENTITIES.length)].name() + " holding "
+                    + ITEM_CRITERIA[random.nextInt(ITEM_CRITERIA.length)];
+            // There are more possible conditions than the greatest param, so repeated ones are just skipped.
+            if (!names.add(name)) continue;
+
+            hitSounds.set(name + ".Enabled", true);
+            hitSounds.set(name + ".Sounds.0.Sound", "block.note_block.pling");
+            // Reading the sounds toggle of players requires the plugin to be enabled.
+            hitSounds.set(name + ".Sounds.0.Options.Ignores Disabled", true);
+            hitSounds.set(name + ".Sounds.0.Options.Radius", 16);
+        }
+
+        // Only the sounds of the conditions play.
+        Configurations.SOUNDS.getConfigurationHolder().getConfiguration().set("Entity Hit.Enabled", false);
+
+        listener = new OnEntityDamageByEntity(plugin);
+        listener.load();
+
+        // Hits by the same type of entity holding the same item share the entity.
+        var damagers = new HashMap<String, LivingEntity>();
+        var victims = new EnumMap<EntityType, LivingEntity>(EntityType.class);
+
+        hits = new EntityDamageByEntityEvent[HITS];
+        for (int i = 0; i < HITS; ++i) {
+            EntityType damagerType = ENTITIES[random.nextInt(ENTITIES.length)];
+            EntityType victimType = ENTITIES[random.nextInt(ENTITIES.length)];
+            Material item = ITEMS[random.nextInt(ITEMS.length)];
+
+            LivingEntity damager = damagers.computeIfAbsent(damagerType + " " + item, key -> MockServer.addEntity(damagerType, location, item));
+            LivingEntity victim = victims.computeIfAbsent(victimType, type -> MockServer.addEntity(type, location, Material.AIR));
+
+            hits[i] = new EntityDamageByEntityEvent(damager, victim, EntityDamageEvent.DamageCause.ENTITY_ATTACK, 1);
+        }
+    }
+
+    @Benchmark
+    public void hit() {
+        listener.onEntityDamageByEntity(hits[hit++ & (HITS - 1)]);
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.benchmark;
+
+import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import org.bukkit.*;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.EntityEquipment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * A lightweight bukkit server made of {@link Proxy} instances, with just enough behaviour for sounds to be played.
+ * <p>
+ * Players and worlds answer the methods used when playing sounds: their ids, locations, permissions (always granted)
+ * and {@link Player#playSound(Location, String, org.bukkit.SoundCategory, float, float)}, which only counts the sounds
+ * played. Entities also answer their type and the item in their main hand. The scheduler runs tasks right away, in the
+ * thread that scheduled them. Any other method returns null, false or zero. Events are not called.
+ */
+public final class MockServer {
+    private static final @NotNull ArrayList<Player> onlinePlayers = new ArrayList<>();
+    private static final @NotNull LinkedHashMap<UUID, MockWorld> worlds = new LinkedHashMap<>();
+    private static int lastEntityId = 0;
+    private static long soundsPlayed = 0;
+
+    private MockServer() {
+    }
+
+    /**
+     * Sets the mock as bukkit's server, if it was not set yet. This must be called before any PlayMoreSounds class is
+     * loaded.
+     */
+    public static synchronized void install() {
+        if (Bukkit.getServer() != null) return;
+
+        PluginManager pluginManager = proxy(PluginManager.class, (proxy, method, args) -> defaultValue(method));
+        BukkitTask task = proxy(BukkitTask.class, (proxy, method, args) -> defaultValue(method));
+        BukkitScheduler scheduler = proxy(BukkitScheduler.class, (proxy, method, args) -> {
+            if (method.getName().equals("runTask") && args[1] instanceof Runnable runnable) {
+                runnable.run();
+                return task;
+            }
+            return defaultValue(method);
+        });
+        Logger logger = Logger.getLogger("MockServer");
+
+        Bukkit.setServer(proxy(Server.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getName" -> "MockServer";
+            case "getVersion" -> "mock";
+            case "getBukkitVersion" -> "1.19-R0.1-SNAPSHOT";
+            case "getLogger" -> logger;
+            case "isPrimaryThread" -> true;
+            case "getPluginManager" -> pluginManager;
+            case "getScheduler" -> scheduler;
+            case "getOnlinePlayers" -> Collections.unmodifiableList(onlinePlayers);
+            case "getWorlds" -> worlds.values().stream().map(w -> w.world).toList();
+            case "getWorld" -> {
+                if (args[0] instanceof UUID id) {
+                    MockWorld world = worlds.get(id);
+                    yield world == null ? null : world.world;
+                }
+                yield worlds.values().stream().filter(w -> w.name.equals(args[0])).map(w -> w.world).findFirst().orElse(null);
+            }
+            default -> defaultValue(method);
+        }));
+    }
+
+    /**
+     * Creates an instance of PlayMoreSounds without loading or enabling it, if there is none yet. This way listeners
+     * can be created, and sounds that are handed to the scheduler are played. Configurations have their default values
+     * until they are changed.
+     *
+     * @return The instance of PlayMoreSounds.
+     */
+    public static synchronized @NotNull PlayMoreSounds installPlugin() {
+        PlayMoreSounds plugin = PlayMoreSounds.getInstance();
+        if (plugin != null) return plugin;
+
+        try {
+            // JavaPlugin can only be constructed by bukkit's plugin class loader.
+            Field unsafeField = Unsafe.class.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            plugin = (PlayMoreSounds) ((Unsafe) unsafeField.get(null)).allocateInstance(PlayMoreSounds.class);
+
+            Field description = JavaPlugin.class.getDeclaredField("description");
+            description.setAccessible(true);
+            description.set(plugin, new PluginDescriptionFile("PlayMoreSounds", "mock", PlayMoreSounds.class.getName()));
+
+            Field instance = PlayMoreSounds.class.getDeclaredField("instance");
+            instance.setAccessible(true);
+            instance.set(null, plugin);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create an instance of PlayMoreSounds.", e);
+        }
+
+        return plugin;
+    }
+
+    /**
+     * Removes all players and worlds.
+     */
+    public static synchronized void reset() {
+        onlinePlayers.clear();
+        worlds.clear();
+        lastEntityId = 0;
+        soundsPlayed = 0;
+    }
+
+    /**
+     * @return The amount of times {@link Player#playSound(Location, String, org.bukkit.SoundCategory, float, float)} was
+     * called on mock players since the last {@link #reset()}.
+     */
+    public static long getSoundsPlayed() {
+        return soundsPlayed;
+    }
+
+    /**
+     * Creates a world.
+     *
+     * @param name The name of the world.
+     * @return The mock world.
+     */
+    public static @NotNull World addWorld(@NotNull String name) {
+        var mock = new MockWorld(name, new UUID(0, worlds.size() + 1));
+        mock.world = proxy(World.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getName" -> mock.name;
+            case "getUID" -> mock.id;
+            case "getPlayers" -> new ArrayList<>(mock.players);
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> mock.id.hashCode();
+            case "toString" -> "MockWorld{name=" + mock.name + "}";
+            default -> defaultValue(method);
+        });
+        worlds.put(mock.id, mock);
+        return mock.world;
+    }
+
+    /**
+     * Creates a player that is online in the world of the location.
+     *
+     * @param name     The name of the player.
+     * @param location The location the player is at.
+     * @return The mock player.
+     */
+    public static @NotNull Player addPlayer(@NotNull String name, @NotNull Location location) {
+        return addPlayer(name, location, null);
+    }
+
+    /**
+     * Creates a player that is online in the world of the location, holding an item in their main hand.
+     *
+     * @param name           The name of the player.
+     * @param location       The location the player is at.
+     * @param itemInMainHand The item the player is holding, or null if they have no equipment.
+     * @return The mock player.
+     */
+    public static @NotNull Player addPlayer(@NotNull String name, @NotNull Location location, @Nullable Material itemInMainHand) {
+        MockWorld world = worlds.get(location.getWorld().getUID());
+        if (world == null) throw new IllegalArgumentException("Location is not in a mock world.");
+
+        var player = (Player) entity(Player.class, EntityType.PLAYER, name, new UUID(1, onlinePlayers.size() + 1), location, itemInMainHand);
+
+        onlinePlayers.add(player);
+        world.players.add(player);
+        return player;
+    }
+
+    /**
+     * Creates a living entity in the world of the location, holding an item in its main hand. Entities of type
+     * {@link EntityType#PLAYER} are created as online players.
+     *
+     * @param type           The type of the entity.
+     * @param location       The location the entity is at.
+     * @param itemInMainHand The item the entity is holding.
+     * @return The mock entity.
+     */
+    public static @NotNull LivingEntity addEntity(@NotNull EntityType type, @NotNull Location location, @NotNull Material itemInMainHand) {
+        if (type == EntityType.PLAYER) return addPlayer("Player" + (onlinePlayers.size() + 1), location, itemInMainHand);
+        if (!worlds.containsKey(location.getWorld().getUID()))
+            throw new IllegalArgumentException("Location is not in a mock world.");
+
+        return entity(LivingEntity.class, type, type.name(), new UUID(2, lastEntityId + 1), location, itemInMainHand);
+    }
+
+    private static @NotNull LivingEntity entity(@NotNull Class<? extends LivingEntity> entityClass, @NotNull EntityType type,
+                                                @NotNull String name, @NotNull UUID id, @NotNull Location location,
+                                                @Nullable Material itemInMainHand) {
+        int entityId = ++lastEntityId;
+        var position = location.clone();
+        EntityEquipment equipment;
+
+        if (itemInMainHand == null) {
+            equipment = null;
+        } else {
+            var item = new ItemStack(itemInMainHand);
+            equipment = proxy(EntityEquipment.class, (proxy, method, args) -> method.getName().equals("getItemInMainHand") ? item : defaultValue(method));
+        }
+
+        return proxy(entityClass, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return switch (method.getName()) {
+                    case "getName", "getDisplayName" -> name;
+                    case "getUniqueId" -> id;
+                    case "getEntityId" -> entityId;
+                    case "getType" -> type;
+                    case "getEquipment" -> equipment;
+                    case "getHealth" -> 20.0;
+                    case "getWorld" -> position.getWorld();
+                    case "getLocation" -> {
+                        if (args == null) yield position.clone();
+                        if (args[0] instanceof Location out) {
+                            out.setWorld(position.getWorld());
+                            out.setX(position.getX());
+                            out.setY(position.getY());
+                            out.setZ(position.getZ());
+                        }
+                        yield args[0];
+                    }
+                    case "getGameMode" -> GameMode.SURVIVAL;
+                    case "isOnline", "isValid", "hasPermission", "canSee" -> true;
+                    case "playSound" -> {
+                        ++soundsPlayed;
+                        yield null;
+                    }
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> id.hashCode();
+                    case "toString" -> "Mock" + entityClass.getSimpleName() + "{name=" + name + "}";
+                    default -> defaultValue(method);
+                };
+            }
+        });
+    }
+
+    /**
+     * Creates players at random locations around a center, using a fixed seed so the same players are created on
+     * every run.
+     *
+     * @param count  The amount of players.
+     * @param center The center of the area.
+     * @param spread The maximum distance of the players to the center in each axis.
+     * @param seed   The seed of the random locations.
+     * @return The mock players.
+     */
+    public static @NotNull List<Player> addPlayers(int count, @NotNull Location center, double spread, long seed) {
+        var random = new Random(seed);
+        var players = new ArrayList<Player>(count);
+
+        for (int i = 0; i < count; ++i) {
+            Location location = center.clone().add((random.nextDouble() * 2 - 1) * spread,
+                    (random.nextDouble() * 2 - 1) * Math.min(spread, 16), (random.nextDouble() * 2 - 1) * spread);
+            players.add(addPlayer("Player" + i, location));
+        }
+
+        return players;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> @NotNull T proxy(@NotNull Class<T> type, @NotNull InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(MockServer.class.getClassLoader(), new Class[]{type}, handler);
+    }
+
+    private static @Nullable Object defaultValue(@NotNull Method method) {
+        Class<?> type = method.getReturnType();
+
+        if (!type.isPrimitive() || type == void.class) {
+            if (type == List.class || type == Collection.class) return new ArrayList<>();
+            if (type == Set.class) return new HashSet<>();
+            return null;
+        }
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        return 0d;
+    }
+
+    private static final class MockWorld {
+        private final @NotNull String name;
+        private final @NotNull UUID id;
+        private final @NotNull ArrayList<Player> players = new ArrayList<>();
+        private World world;
+
+        private MockWorld(@NotNull String name, @NotNull UUID id) {
+            this.name = name;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.benchmark;
+
+import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
+import com.epicnicity322.playmoresounds.bukkit.sound.PlayableSound;
+import com.epicnicity322.playmoresounds.core.sound.SoundCategory;
+import com.epicnicity322.playmoresounds.core.sound.SoundOptions;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays a rich sound with a number of child sounds to a number of listeners in range.
+ * <p>
+ * Child sounds ignore the sounds toggle, because reading the toggle state of players that did not join requires the
+ * plugin to be enabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RichSoundPlayBenchmark {
+    @Param({"1", "4", "16"})
+    public int children;
+    @Param({"1", "20", "100"})
+    public int listeners;
+    @Param({"32"})
+    public double radius;
+    private PlayableRichSound sound;
+    private Player source;
+    private Location location;
+
+    @Setup
+    public void setup() {
+        MockServer.install();
+        MockServer.reset();
+
+        World world = MockServer.addWorld("world");
+        location = new Location(world, 0, 64, 0);
+        // Players are spread in a cube that fits the radius, so all of them are listeners.
+        double spread = radius / 2;
+        source = MockServer.addPlayers(listeners, location, spread, 322).get(0);
+        // Players out of range, that must be skipped.
+        MockServer.addPlayers(listeners, location.clone().add(radius * 4, 0, radius * 4), spread, 323);
+
+        var childSounds = new ArrayList<PlayableSound>(children);
+        for (int i = 0; i < children; ++i)
+            childSounds.add(new PlayableSound(Integer.toString(i), "block.note_block.pling", SoundCategory.MASTER, 10, 1, 0,
+                    new SoundOptions(true, null, null, radius)));
+
+        sound = new PlayableRichSound("benchmark", true, false, childSounds);
+    }
+
+    @Benchmark
+    public Object play() {
+        return sound.playDelayable(source, location);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.region;
+
+import com.epicnicity322.playmoresounds.benchmark.MockServer;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects the regions a player entered and left while walking, with a number of regions spread through the world.
+ * <p>
+ * This is in the region package to use {@link RegionIndex} directly, since {@link RegionManager} loads the regions
+ * of the data folder and needs a running server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RegionEnterLeaveBenchmark {
+    private static final int PATH_LENGTH = 4096;
+    @Param({"10", "100", "1000"})
+    public int regions;
+    @Param({"1024"})
+    public int worldSize;
+    private final RegionIndex index = new RegionIndex();
+    private final ArrayList<SoundRegion> allRegions = new ArrayList<>();
+    private final HashSet<SoundRegion> membership = new HashSet<>();
+    private Location[] path;
+    private int step = 0;
+
+    @Setup
+    public void setup() {
+        MockServer.install();
+        MockServer.reset();
+
+        World world = MockServer.addWorld("world");
+        var random = new Random(322);
+
+        for (int i = 0; i < regions; ++i) {
+            int x = random.nextInt(worldSize) - worldSize / 2, z = random.nextInt(worldSize) - worldSize / 2;
+            int sizeX = 4 + random.nextInt(28), sizeZ = 4 + random.nextInt(28);
+            var region = new SoundRegion("region" + i, new Location(world, x + sizeX, 72, z + sizeZ), new Location(world, x, 56, z), null, null);
+
+            index.add(region);
+            allRegions.add(region);
+        }
+
+        // A random walk that moves about one block every step.
+        path = new Location[PATH_LENGTH];
+        double x = 0, z = 0;
+        for (int i = 0; i < PATH_LENGTH; ++i) {
+            x = Math.max(-worldSize / 2d, Math.min(worldSize / 2d, x + random.nextDouble() * 2 - 1));
+            z = Math.max(-worldSize / 2d, Math.min(worldSize / 2d, z + random.nextDouble() * 2 - 1));
+            path[i] = new Location(world, x, 64, z);
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole blackhole) {
+        Location to = path[step++ & (PATH_LENGTH - 1)];
+        updateMembership(index.getRegionsAt(to), blackhole);
+    }
+
+    /**
+     * Looks through every region, as it was done before regions were indexed.
+     */
+    @Benchmark
+    public void linear(Blackhole blackhole) {
+        Location to = path[step++ & (PATH_LENGTH - 1)];
+        var inside = new ArrayList<SoundRegion>(4);
+        for (SoundRegion region : allRegions) if (region.isInside(to)) inside.add(region);
+        updateMembership(inside, blackhole);
+    }
+
+    private void updateMembership(ArrayList<SoundRegion> inside, Blackhole blackhole) {
+        for (var iterator = membership.iterator(); iterator.hasNext(); ) {
+            SoundRegion region = iterator.next();
+            if (!inside.contains(region)) {
+                iterator.remove();
+                blackhole.consume(region);
+            }
+        }
+        for (SoundRegion region : inside) if (membership.add(region)) blackhole.consume(region);
+    }
+}
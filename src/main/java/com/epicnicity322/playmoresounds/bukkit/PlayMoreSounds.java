@@ -31,13 +31,19 @@ import com.epicnicity322.playmoresounds.bukkit.gui.inventories.ListInventory;
 import com.epicnicity322.playmoresounds.bukkit.listeners.*;
 import com.epicnicity322.playmoresounds.bukkit.metrics.Metrics;
 import com.epicnicity322.playmoresounds.bukkit.region.RegionManager;
+import com.epicnicity322.playmoresounds.bukkit.sound.PlayQueue;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableSound;
+import com.epicnicity322.playmoresounds.bukkit.sound.PlayerGrid;
+import com.epicnicity322.playmoresounds.bukkit.sound.VoiceBudget;
 import com.epicnicity322.playmoresounds.bukkit.util.ListenerRegister;
+import com.epicnicity322.playmoresounds.bukkit.util.PermissionCache;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
 import com.epicnicity322.playmoresounds.bukkit.util.UpdateManager;
 import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
 import com.epicnicity322.playmoresounds.core.addons.AddonManager;
 import com.epicnicity322.playmoresounds.core.addons.PMSAddon;
 import com.epicnicity322.playmoresounds.core.addons.StartTime;
+import com.epicnicity322.playmoresounds.core.config.ConfigurationChanges;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
 import com.epicnicity322.playmoresounds.core.sound.SoundType;
 import com.epicnicity322.playmoresounds.core.util.LoadableHashSet;
@@ -55,15 +61,35 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public final class PlayMoreSounds extends JavaPlugin {
     private static final @NotNull Logger logger = new Logger(PMSHelper.isChristmas() ? "&f[&4PlayMoreSounds&f] " : "&6[&9PlayMoreSounds&6] ");
     private static final @NotNull MessageSender language;
     private static final @NotNull LoadableHashSet<String> serverPlugins = new LoadableHashSet<>();
     private static final @NotNull AddonManager addonManager = new AddonManager(serverPlugins, logger);
+    /**
+     * The thread configurations are loaded in on {@link #reload()} and {@link #reloadAsync()}. A single thread, so loads
+     * never overlap.
+     */
+    private static final @NotNull ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "PlayMoreSounds Reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Held while configurations are loaded and while the reload is applied, so listeners are never loaded from
+     * configurations that are being written.
+     */
+    private static final @NotNull Object reloadLock = new Object();
     private static @Nullable HashSet<Runnable> onDisable;
     private static @Nullable HashSet<Runnable> onEnable;
     private static @Nullable HashSet<Runnable> onInstance;
@@ -210,18 +236,122 @@ public final class PlayMoreSounds extends JavaPlugin {
         return addonManager;
     }
 
+    /**
+     * Reloads every configuration, then loads again only the regions, listeners and features that depend on the
+     * configurations whose files changed since the last reload. Runnables added with {@link #onReload(Runnable)} always
+     * run.
+     * <p>
+     * The configurations are loaded in the same thread as {@link #reloadAsync()}, and this method waits for them.
+     *
+     * @return The exceptions of configurations that failed to load.
+     * @throws IllegalStateException If PlayMoreSounds was not instantiated by bukkit yet.
+     */
     public static @NotNull HashMap<ConfigurationHolder, Exception> reload() {
         if (instance == null) throw new IllegalStateException("PlayMoreSounds is not loaded.");
 
-        HashMap<ConfigurationHolder, Exception> exceptions = Configurations.getConfigurationLoader().loadConfigurations();
-        RegionManager.saveAndUpdate();
-        ListenerRegister.loadListeners();
-        WorldTimeListener.load(instance);
-        UpdateManager.loadUpdater(instance);
-        ListInventory.refreshListInventories();
-        OnPlayerResourcePackStatus.load(instance);
+        var changed = EnumSet.noneOf(Configurations.class);
+        HashMap<ConfigurationHolder, Exception> exceptions;
+
+        try {
+            exceptions = reloadExecutor.submit(() -> loadConfigurations(changed)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the configurations to load.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException(cause);
+        }
+
+        applyReload(changed);
+        return exceptions;
+    }
 
-        if (onReload == null) return exceptions;
+    /**
+     * Reads and parses every configuration in another thread, then loads again the regions, listeners and features that
+     * depend on the configurations whose files changed on the next tick.
+     *
+     * @return A future completed with the exceptions of configurations that failed to load, once the reload is applied.
+     * @throws IllegalStateException If PlayMoreSounds was not instantiated by bukkit yet.
+     * @see #reload()
+     */
+    public static @NotNull CompletableFuture<HashMap<ConfigurationHolder, Exception>> reloadAsync() {
+        PlayMoreSounds plugin = instance;
+        if (plugin == null) throw new IllegalStateException("PlayMoreSounds is not loaded.");
+
+        var future = new CompletableFuture<HashMap<ConfigurationHolder, Exception>>();
+
+        reloadExecutor.execute(() -> {
+            var changed = EnumSet.noneOf(Configurations.class);
+            HashMap<ConfigurationHolder, Exception> exceptions;
+
+            try {
+                exceptions = loadConfigurations(changed);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+                return;
+            }
+
+            TaskScheduler.run(plugin, () -> {
+                try {
+                    applyReload(changed);
+                    future.complete(exceptions);
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        });
+
+        return future;
+    }
+
+    /**
+     * Loads every configuration in the loader and finds which of PlayMoreSounds' configurations changed since they were
+     * last loaded.
+     *
+     * @param changed The set to add the configurations that changed to.
+     * @return The exceptions of configurations that failed to load.
+     */
+    private static @NotNull HashMap<ConfigurationHolder, Exception> loadConfigurations(@NotNull EnumSet<Configurations> changed) {
+        synchronized (reloadLock) {
+            changed.addAll(ConfigurationChanges.poll());
+
+            // Addons register their own configurations in the loader, which are not checked for changes, so every
+            //configuration is always loaded.
+            HashMap<ConfigurationHolder, Exception> exceptions = Configurations.getConfigurationLoader().loadConfigurations();
+            // Loading may write missing or migrated configurations, those writes are also changes.
+            changed.addAll(ConfigurationChanges.poll());
+            // Configurations that failed to load are checked again on the next reload.
+            if (!exceptions.isEmpty()) ConfigurationChanges.reset();
+            return exceptions;
+        }
+    }
+
+    private static void applyReload(@NotNull EnumSet<Configurations> changed) {
+        PlayMoreSounds plugin = instance;
+        if (plugin == null) return;
+
+        synchronized (reloadLock) {
+            applyChanges(plugin, changed);
+        }
+    }
+
+    private static void applyChanges(@NotNull PlayMoreSounds plugin, @NotNull EnumSet<Configurations> changed) {
+        RegionManager.saveAndUpdateIfChanged();
+
+        if (!changed.isEmpty()) {
+            ListenerRegister.loadListeners(changed);
+            if (changed.contains(Configurations.CONFIG) || changed.contains(Configurations.WORLD_TIME_TRIGGERS))
+                WorldTimeListener.load(plugin);
+            if (changed.contains(Configurations.CONFIG)) {
+                UpdateManager.loadUpdater(plugin);
+                OnPlayerResourcePackStatus.load(plugin);
+            }
+            ListInventory.refreshListInventories();
+        }
+
+        if (onReload == null) return;
 
         synchronized (PlayMoreSounds.class) {
             for (Runnable runnable : onReload) {
@@ -233,8 +363,6 @@ public final class PlayMoreSounds extends JavaPlugin {
                 }
             }
         }
-
-        return exceptions;
     }
 
     @Override
@@ -274,6 +402,8 @@ public final class PlayMoreSounds extends JavaPlugin {
                 return;
             }
 
+            // Remembering the state of the configuration files, so the next reload only loads what changed.
+            ConfigurationChanges.poll();
             RegionManager.saveAndUpdate();
             RegionManager.loadAutoSave();
 
@@ -283,6 +413,14 @@ public final class PlayMoreSounds extends JavaPlugin {
             var pm = Bukkit.getPluginManager();
 
             OnPlayerResourcePackStatus.load(this);
+            // Registering the chunk grid of players used by radius sounds.
+            PlayerGrid.load(this);
+            // Registering the tick counter of the sounds per tick budget and trigger cooldowns.
+            VoiceBudget.load(this);
+            // Registering the listener that forgets the sounds played to players that quit.
+            SoundStopper.load(this);
+            // Registering the listeners that keep the permission cache of sounds updated.
+            PermissionCache.load(this);
             // Registering region wand tool listener.
             pm.registerEvents(new OnPlayerInteract(), this);
             // Registering region enter event caller.
@@ -336,6 +474,9 @@ public final class PlayMoreSounds extends JavaPlugin {
                         addons.forEach(addon -> map.put(addon.getDescription().getName(), 1));
                         return map;
                     }));
+                    metrics.addCustomChart(new Metrics.SingleLineChart("join_queue_peak_size", JoinQueue::pollPeakSize));
+                    metrics.addCustomChart(new Metrics.SingleLineChart("play_queue_peak_size", PlayQueue::pollPeakSize));
+                    metrics.addCustomChart(new Metrics.SingleLineChart("play_queue_dropped_sounds", PlayQueue::pollDropped));
                     metrics.addCustomChart(new Metrics.SimplePie("checking_for_updates", () -> Boolean.toString(Configurations.CONFIG.getConfigurationHolder().getConfiguration().getBoolean("Updater.Enabled").orElse(false))));
 
                     logger.log("&ePlayMoreSounds is using bStats as metrics collector.");
@@ -366,7 +507,7 @@ public final class PlayMoreSounds extends JavaPlugin {
                 addonManager.startAddons(StartTime.END);
 
                 // Bukkit only runs a task once the server has fully loaded.
-                Bukkit.getScheduler().runTask(this, () -> addonManager.startAddons(StartTime.SERVER_LOAD_COMPLETE));
+                TaskScheduler.run(this, () -> addonManager.startAddons(StartTime.SERVER_LOAD_COMPLETE));
             } else {
                 logger.log("&6============================================", ConsoleLogger.Level.ERROR);
                 logger.log("&cSomething went wrong while loading PMS", ConsoleLogger.Level.ERROR);
@@ -400,6 +541,15 @@ public final class PlayMoreSounds extends JavaPlugin {
 
         addonManager.stopAddons();
 
+        // Letting a reload that is loading configurations finish writing them.
+        reloadExecutor.shutdown();
+        try {
+            if (!reloadExecutor.awaitTermination(5, TimeUnit.SECONDS)) reloadExecutor.shutdownNow();
+        } catch (InterruptedException e) {
+            reloadExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
         if (onDisable != null) {
             for (Runnable runnable : onDisable) {
                 try {
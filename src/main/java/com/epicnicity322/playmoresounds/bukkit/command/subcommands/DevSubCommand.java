@@ -26,6 +26,7 @@ import com.epicnicity322.playmoresounds.bukkit.gui.inventories.RichSoundInventor
 import com.epicnicity322.playmoresounds.bukkit.listeners.OnPlayerInteract;
 import com.epicnicity322.playmoresounds.bukkit.region.RegionManager;
 import com.epicnicity322.playmoresounds.bukkit.region.SoundRegion;
+import com.epicnicity322.playmoresounds.bukkit.sound.PerChildSoundEvents;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayRichSoundEvent;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlaySoundEvent;
 import com.epicnicity322.playmoresounds.bukkit.util.ListenerRegister;
@@ -74,6 +75,7 @@ public final class DevSubCommand extends Command {
         }
 
         @EventHandler(priority = EventPriority.MONITOR)
+        @PerChildSoundEvents
         public void onPlaySound(PlaySoundEvent event) {
             var logger = PlayMoreSounds.getConsoleLogger();
             var sound = event.getSound();
@@ -27,6 +27,7 @@ import com.epicnicity322.playmoresounds.bukkit.gui.inventories.RegionSoundInvent
 import com.epicnicity322.playmoresounds.bukkit.listeners.OnPlayerInteract;
 import com.epicnicity322.playmoresounds.bukkit.region.RegionManager;
 import com.epicnicity322.playmoresounds.bukkit.region.SoundRegion;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
 import com.epicnicity322.playmoresounds.bukkit.util.UniqueRunnable;
 import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
@@ -38,7 +39,6 @@ import org.bukkit.Particle;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerTeleportEvent;
-import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -307,12 +307,12 @@ public final class RegionSubCommand extends Command implements Helpable {
 
                 showingBorders.incrementAndGet();
 
-                BukkitTask repeatingTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+                TaskScheduler.Task repeatingTask = TaskScheduler.runTimerFor(plugin, player, () -> {
                     for (Location border : region.getBorder())
                         player.spawnParticle(Particle.NOTE, border, particleCount, r, g, b);
                 }, 0, 5);
 
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                TaskScheduler.runLater(plugin, () -> {
                     repeatingTask.cancel();
                     showingBorders.decrementAndGet();
                 }, config.getNumber("Sound Regions.Border.Showing Time").orElse(140).longValue());
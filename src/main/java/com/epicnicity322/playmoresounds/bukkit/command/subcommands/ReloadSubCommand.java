@@ -58,8 +58,18 @@ public final class ReloadSubCommand extends Command implements Helpable {
 
     @Override
     public void run(@NotNull String label, @NotNull CommandSender sender, @NotNull String[] args) {
+        PlayMoreSounds.reloadAsync().whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                PlayMoreSounds.getLanguage().send(sender, PlayMoreSounds.getLanguage().get("Reload.Error"));
+                PlayMoreSoundsCore.getErrorHandler().report(throwable, "Reload Exception:");
+            } else {
+                sendResult(sender, result.values());
+            }
+        });
+    }
+
+    private void sendResult(@NotNull CommandSender sender, @NotNull Collection<Exception> exceptions) {
         var lang = PlayMoreSounds.getLanguage();
-        Collection<Exception> exceptions = PlayMoreSounds.reload().values();
 
         if (exceptions.isEmpty()) {
             lang.send(sender, lang.get("Reload.Success"));
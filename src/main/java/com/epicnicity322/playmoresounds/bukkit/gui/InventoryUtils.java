@@ -19,6 +19,7 @@
 package com.epicnicity322.playmoresounds.bukkit.gui;
 
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
 import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
 import org.bukkit.Bukkit;
@@ -61,7 +62,7 @@ public final class InventoryUtils {
             Consumer<InventoryClickEvent> button = buttons.get(event.getRawSlot());
 
             if (button != null) try {
-                Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> button.accept(event));
+                TaskScheduler.runFor(PlayMoreSounds.getInstance(), event.getWhoClicked(), () -> button.accept(event), 0);
             } catch (Throwable t) {
                 PlayMoreSoundsCore.getErrorHandler().report(t, "Button Click Error:");
             }
@@ -77,7 +78,7 @@ public final class InventoryUtils {
                 Consumer<InventoryCloseEvent> runnable = onClose.remove(player);
 
                 if (runnable != null) try {
-                    Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> runnable.accept(event));
+                    TaskScheduler.runFor(PlayMoreSounds.getInstance(), player, () -> runnable.accept(event), 0);
                 } catch (Throwable t) {
                     PlayMoreSoundsCore.getErrorHandler().report(t, "On Close Error:");
                 }
@@ -26,6 +26,7 @@ import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
 import com.epicnicity322.playmoresounds.bukkit.command.subcommands.AddonsSubCommand;
 import com.epicnicity322.playmoresounds.bukkit.gui.InventoryUtils;
 import com.epicnicity322.playmoresounds.bukkit.gui.PMSInventory;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
 import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
 import com.epicnicity322.playmoresounds.core.PlayMoreSoundsVersion;
 import com.epicnicity322.playmoresounds.core.addons.PMSAddon;
@@ -39,7 +40,6 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -167,7 +167,7 @@ public final class AddonsInventory implements PMSInventory {
      * @param latest If the addons should be downloaded from latest tag, false for PlayMoreSounds current version.
      */
     private static void downloadAddons(@NotNull Player player, boolean latest) throws Exception {
-        BukkitTask repeatingTitle = null;
+        TaskScheduler.Task repeatingTitle = null;
         var lang = PlayMoreSounds.getLanguage();
 
         try {
@@ -182,14 +182,14 @@ public final class AddonsInventory implements PMSInventory {
             JSONObject releaseData = null;
 
             // Getting the github release information.
-            repeatingTitle = Bukkit.getScheduler().runTaskTimer(PlayMoreSounds.getInstance(), () -> player.sendTitle(lang.getColored("Addons.Download.Downloading.Title"), lang.getColored("Addons.Download.Downloading.Subtitle.Info"), 5, 10, 5), 0, 25);
+            repeatingTitle = TaskScheduler.runTimerFor(PlayMoreSounds.getInstance(), player, () -> player.sendTitle(lang.getColored("Addons.Download.Downloading.Title"), lang.getColored("Addons.Download.Downloading.Subtitle.Info"), 5, 10, 5), 0, 25);
             try (var baos = new ByteArrayOutputStream()) {
                 var downloader = new Downloader(releasesURL, baos);
                 downloader.run();
 
                 if (downloader.getResult() != Downloader.Result.SUCCESS) {
                     repeatingTitle.cancel();
-                    Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> player.sendTitle(lang.getColored("Addons.Download.Error.Title"), lang.getColored("Addons.Download.Error.Subtitle"), 10, 20, 10));
+                    TaskScheduler.runFor(PlayMoreSounds.getInstance(), player, () -> player.sendTitle(lang.getColored("Addons.Download.Error.Title"), lang.getColored("Addons.Download.Error.Subtitle"), 10, 20, 10), 0);
                     throw downloader.getException();
                 }
 
@@ -209,7 +209,7 @@ public final class AddonsInventory implements PMSInventory {
 
                     if (releaseData == null) {
                         repeatingTitle.cancel();
-                        Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> player.sendTitle(lang.getColored("Addons.Download.Error.Title"), lang.getColored("Addons.Download.Error.Subtitle"), 10, 20, 10));
+                        TaskScheduler.runFor(PlayMoreSounds.getInstance(), player, () -> player.sendTitle(lang.getColored("Addons.Download.Error.Title"), lang.getColored("Addons.Download.Error.Subtitle"), 10, 20, 10), 0);
                         lang.send(player, lang.get("Addons.Download.Error.Not Found").replace("<version>", PlayMoreSoundsVersion.version));
                         throw new NullPointerException();
                     }
@@ -221,25 +221,25 @@ public final class AddonsInventory implements PMSInventory {
             String addonsDownloadURL = findAddonsDownloadURL((JSONArray) releaseData.get("assets"));
 
             if (addonsDownloadURL == null) {
-                Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> player.sendTitle(lang.getColored("Addons.Download.Error.Title"), lang.getColored("Addons.Download.Error.Subtitle"), 10, 20, 10));
+                TaskScheduler.runFor(PlayMoreSounds.getInstance(), player, () -> player.sendTitle(lang.getColored("Addons.Download.Error.Title"), lang.getColored("Addons.Download.Error.Subtitle"), 10, 20, 10), 0);
                 lang.send(player, lang.get("Addons.Download.Error.Not Found").replace("<version>", PlayMoreSoundsVersion.version));
                 throw new NullPointerException();
             }
 
             // Downloading addons zip to PlayMoreSounds data folder.
-            repeatingTitle = Bukkit.getScheduler().runTaskTimer(PlayMoreSounds.getInstance(), () -> player.sendTitle(lang.getColored("Addons.Download.Downloading.Title"), lang.getColored("Addons.Download.Downloading.Subtitle.Files"), 5, 10, 5), 0, 25);
+            repeatingTitle = TaskScheduler.runTimerFor(PlayMoreSounds.getInstance(), player, () -> player.sendTitle(lang.getColored("Addons.Download.Downloading.Title"), lang.getColored("Addons.Download.Downloading.Subtitle.Files"), 5, 10, 5), 0, 25);
             try (FileOutputStream fos = new FileOutputStream(tempAddonsZip.toFile())) {
                 var downloader = new Downloader(new URL(addonsDownloadURL), fos);
                 downloader.run();
 
                 if (downloader.getResult() != Downloader.Result.SUCCESS) {
                     repeatingTitle.cancel();
-                    Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> player.sendTitle(lang.getColored("Addons.Download.Error.Title"), lang.getColored("Addons.Download.Error.Subtitle"), 10, 20, 10));
+                    TaskScheduler.runFor(PlayMoreSounds.getInstance(), player, () -> player.sendTitle(lang.getColored("Addons.Download.Error.Title"), lang.getColored("Addons.Download.Error.Subtitle"), 10, 20, 10), 0);
                     throw downloader.getException();
                 }
 
                 repeatingTitle.cancel();
-                Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> player.sendTitle(lang.getColored("Addons.Download.Success.Title"), lang.getColored("Addons.Download.Success.Subtitle"), 10, 20, 10));
+                TaskScheduler.runFor(PlayMoreSounds.getInstance(), player, () -> player.sendTitle(lang.getColored("Addons.Download.Success.Title"), lang.getColored("Addons.Download.Success.Subtitle"), 10, 20, 10), 0);
             }
         } finally {
             if (repeatingTitle != null && !repeatingTitle.isCancelled()) repeatingTitle.cancel();
@@ -411,7 +411,7 @@ public final class AddonsInventory implements PMSInventory {
             inventory.setItem(size - 5, InventoryUtils.getItemStack("Addons.Inventory.Items.Done"));
             buttons.put(size - 5, event -> event.getWhoClicked().closeInventory());
             fillAddons();
-            Bukkit.getScheduler().runTask(PlayMoreSounds.getInstance(), () -> InventoryUtils.openInventory(inventory, buttons, humanEntity, event -> {
+            TaskScheduler.runFor(PlayMoreSounds.getInstance(), humanEntity, () -> InventoryUtils.openInventory(inventory, buttons, humanEntity, event -> {
                 block.set(false);
 
                 try {
@@ -427,7 +427,7 @@ public final class AddonsInventory implements PMSInventory {
                 } catch (Exception e) {
                     PlayMoreSoundsCore.getErrorHandler().report(e, "Temp Folder Delete Exception:");
                 }
-            }));
+            }), 0);
         }
 
         private void fillAddons() {
@@ -22,6 +22,7 @@ import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
 import com.epicnicity322.playmoresounds.bukkit.gui.InventoryUtils;
 import com.epicnicity322.playmoresounds.bukkit.gui.PMSInventory;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableSound;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
 import com.epicnicity322.playmoresounds.core.sound.SoundCategory;
 import com.epicnicity322.playmoresounds.core.sound.SoundType;
 import com.epicnicity322.playmoresounds.core.util.PMSHelper;
@@ -177,7 +178,7 @@ public final class SoundInventory implements PMSInventory {
                 openInventory(player);
             } else {
                 PlayMoreSounds.getLanguage().send(player, lang.get("Sound Inventory.Items." + name + ".Input.Invalid"));
-                Bukkit.getScheduler().runTaskLater(PlayMoreSounds.getInstance(), () -> openInventory(player), 40);
+                TaskScheduler.runFor(PlayMoreSounds.getInstance(), player, () -> openInventory(player), 40);
             }
         }).openInventory();
     }
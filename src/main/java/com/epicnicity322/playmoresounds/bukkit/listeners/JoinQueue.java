@@ -0,0 +1,146 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.listeners;
+
+import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
+import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
+import com.epicnicity322.playmoresounds.core.config.Configurations;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+/**
+ * Spreads the work of players joining across ticks. Work added to the queue runs on the following ticks, in the order
+ * players joined, until the time spent in the tick reaches "Performance.Join Queue.Tick Budget", set in config.yml.
+ * This keeps the main thread responsive when many players join at once, like after a restart.
+ * <p>
+ * Moves of players waiting in the queue are not evaluated, their work runs with the location they are in on their
+ * turn. On Folia, work always runs right away, because there is no single thread to process the queue.
+ */
+public final class JoinQueue {
+    private static final @NotNull LinkedHashMap<UUID, Runnable> pending = new LinkedHashMap<>();
+    private static long tickBudget = 5_000_000;
+    private static volatile int peakSize = 0;
+    private static @Nullable TaskScheduler.Task task;
+
+    static {
+        Runnable configUpdater = () -> tickBudget = (long) (Configurations.CONFIG.getConfigurationHolder().getConfiguration()
+                .getNumber("Performance.Join Queue.Tick Budget").orElse(5).doubleValue() * 1_000_000);
+
+        PlayMoreSounds.onInstance(configUpdater);
+        PlayMoreSounds.onEnable(configUpdater);
+        PlayMoreSounds.onReload(configUpdater);
+        PlayMoreSounds.onDisable(() -> {
+            pending.clear();
+            task = null;
+        });
+    }
+
+    private JoinQueue() {
+    }
+
+    /**
+     * Adds the work of a player that joined to the queue, or runs it right away if the queue can't be used.
+     *
+     * @param player The player that joined.
+     * @param work   The work to run.
+     */
+    static void add(@NotNull Player player, @NotNull Runnable work) {
+        PlayMoreSounds plugin = PlayMoreSounds.getInstance();
+
+        if (plugin == null || tickBudget <= 0 || TaskScheduler.isFolia() || !TaskScheduler.isMainThread()) {
+            work.run();
+            return;
+        }
+
+        pending.put(player.getUniqueId(), work);
+        if (pending.size() > peakSize) peakSize = pending.size();
+
+        if (task == null) task = TaskScheduler.runTimer(plugin, JoinQueue::process, 1, 1);
+    }
+
+    /**
+     * @param player The player to check.
+     * @return Whether the work of the player is waiting in the queue.
+     */
+    static boolean isPending(@NotNull Player player) {
+        return !pending.isEmpty() && pending.containsKey(player.getUniqueId());
+    }
+
+    /**
+     * Removes the work of the player from the queue without running it.
+     *
+     * @param player The player that is leaving.
+     * @return Whether the player was waiting in the queue.
+     */
+    static boolean remove(@NotNull Player player) {
+        return !pending.isEmpty() && pending.remove(player.getUniqueId()) != null;
+    }
+
+    /**
+     * @return The amount of players waiting in the queue.
+     */
+    public static int getSize() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the most players that were waiting in the queue at once since the last time this was called.
+     *
+     * @return The peak size of the queue.
+     */
+    public static int pollPeakSize() {
+        int peak = peakSize;
+        peakSize = pending.size();
+        return peak;
+    }
+
+    private static void process() {
+        long start = System.nanoTime();
+
+        // At least one player is processed every tick, so the queue always moves.
+        while (!pending.isEmpty()) {
+            // The work can call events that change the queue, so the iterator is not reused.
+            Iterator<Runnable> first = pending.values().iterator();
+            Runnable work = first.next();
+            first.remove();
+            run(work);
+
+            if (System.nanoTime() - start >= tickBudget) break;
+        }
+
+        if (pending.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private static void run(@NotNull Runnable work) {
+        try {
+            work.run();
+        } catch (Throwable t) {
+            PlayMoreSoundsCore.getErrorHandler().report(t, "Join Queue Exception:");
+        }
+    }
+}
@@ -19,8 +19,11 @@
 package com.epicnicity322.playmoresounds.bukkit.listeners;
 
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.sound.PlayQueue;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
+import com.epicnicity322.playmoresounds.core.util.FilterMatcher;
+import com.epicnicity322.yamlhandler.Configuration;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
@@ -29,28 +32,45 @@ import org.bukkit.event.HandlerList;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 public final class OnAsyncPlayerChat extends PMSListener {
-    private final @NotNull HashMap<String, HashSet<PlayableRichSound>> filtersAndCriteria = new HashMap<>();
+    private volatile @NotNull FilterMatcher<FilterSound> filters = new FilterMatcher<>(Collections.emptyList());
 
     public OnAsyncPlayerChat(@NotNull PlayMoreSounds plugin) {
         super(plugin);
     }
 
-    static boolean matchesFilter(String filter, String criteria, String message) {
-        return switch (filter) {
-            case "Starts With" -> message.startsWith(criteria);
-            case "Ends With" -> message.endsWith(criteria);
-            case "Contains SubString" -> message.toLowerCase().contains(criteria.toLowerCase());
-            case "Contains" -> message.toLowerCase().matches(".*\\b" + Pattern.quote(criteria.toLowerCase()) + "\\b.*");
-            case "Equals Ignore Case" -> message.equalsIgnoreCase(criteria);
-            case "Equals Exactly" -> message.equals(criteria);
-            default -> false;
-        };
+    /**
+     * Compiles the enabled sounds of a configuration where the root sections are filters, and their sections are the
+     * criteria of the filter. Criteria keep the order they are in the configuration.
+     *
+     * @param triggers The configuration with the filters.
+     * @return The matcher of all criteria.
+     */
+    static @NotNull FilterMatcher<FilterSound> compileFilters(@NotNull Configuration triggers) {
+        var criteria = new ArrayList<FilterMatcher.Criterion<FilterSound>>();
+
+        for (Map.Entry<String, Object> filter : triggers.getNodes().entrySet()) {
+            if (filter.getValue() instanceof ConfigurationSection filterSection) {
+                for (Map.Entry<String, Object> criterion : filterSection.getNodes().entrySet()) {
+                    if (criterion.getValue() instanceof ConfigurationSection criterionSection) {
+                        PlayableRichSound sound = getRichSound(criterionSection);
+                        if (sound == null) continue;
+
+                        criteria.add(new FilterMatcher.Criterion<>(filter.getKey(), criterion.getKey(), new FilterSound(sound,
+                                criterionSection.getBoolean("Prevent Other Sounds.Default Sound").orElse(false),
+                                criterionSection.getBoolean("Prevent Other Sounds.Other Filters").orElse(false))));
+                    }
+                }
+            }
+        }
+
+        return new FilterMatcher<>(criteria);
     }
 
     @Override
@@ -59,32 +79,18 @@ public final class OnAsyncPlayerChat extends PMSListener {
     }
 
     @Override
-    public void load() {
-        filtersAndCriteria.clear();
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS, Configurations.CHAT_SOUNDS);
+    }
 
+    @Override
+    public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
-        var chatTriggers = Configurations.CHAT_SOUNDS.getConfigurationHolder().getConfiguration();
-
-        for (Map.Entry<String, Object> filter : chatTriggers.getNodes().entrySet()) {
-            if (filter.getValue() instanceof ConfigurationSection filterSection) {
-                HashSet<PlayableRichSound> criteria = new HashSet<>();
-
-                for (Map.Entry<String, Object> criterion : filterSection.getNodes().entrySet()) {
-                    if (criterion.getValue() instanceof ConfigurationSection criterionSection) {
-
-                        if (criterionSection.getBoolean("Enabled").orElse(false)) {
-                            criteria.add(getRichSound(criterionSection));
-                        }
-                    }
-                }
-
-                if (!criteria.isEmpty()) filtersAndCriteria.put(filter.getKey(), criteria);
-            }
-        }
 
+        filters = compileFilters(Configurations.CHAT_SOUNDS.getConfigurationHolder().getConfiguration());
         setRichSound(getRichSound(sounds.getConfigurationSection(getName())));
 
-        if (getRichSound() != null || !filtersAndCriteria.isEmpty()) {
+        if (getRichSound() != null || !filters.isEmpty()) {
             if (!isLoaded()) {
                 Bukkit.getPluginManager().registerEvents(this, plugin);
                 setLoaded(true);
@@ -102,28 +108,30 @@ public final class OnAsyncPlayerChat extends PMSListener {
     public void onAsyncPlayerChat(AsyncPlayerChatEvent event) {
         var message = event.getMessage();
         var player = event.getPlayer();
-        boolean defaultSound = getRichSound() != null;
+        PlayableRichSound defaultSound = getRichSound();
 
-        filterLoop:
-        for (Map.Entry<String, HashSet<PlayableRichSound>> filter : filtersAndCriteria.entrySet()) {
-            for (var criteria : filter.getValue()) {
-                ConfigurationSection criteriaSection = criteria.getSection();
+        for (FilterSound filterSound : filters.match(message)) {
+            PlayableRichSound sound = filterSound.sound();
 
-                if (!event.isCancelled() || !criteria.isCancellable()) {
-                    if (matchesFilter(filter.getKey(), criteriaSection.getName(), message)) {
-                        Bukkit.getScheduler().runTask(plugin, () -> criteria.play(player));
+            if (event.isCancelled() && sound.isCancellable()) continue;
 
-                        if (criteriaSection.getBoolean("Prevent Other Sounds.Default Sound").orElse(false))
-                            defaultSound = false;
+            PlayQueue.play(sound, player);
 
-                        if (criteriaSection.getBoolean("Prevent Other Sounds.Other Filters").orElse(false))
-                            break filterLoop;
-                    }
-                }
-            }
+            if (filterSound.preventDefaultSound()) defaultSound = null;
+            if (filterSound.preventOtherFilters()) break;
         }
 
-        if (defaultSound && (!event.isCancelled() || !getRichSound().isCancellable()))
-            Bukkit.getScheduler().runTask(plugin, () -> getRichSound().play(player));
+        if (defaultSound != null && (!event.isCancelled() || !defaultSound.isCancellable()))
+            PlayQueue.play(defaultSound, player);
+    }
+
+    /**
+     * A sound of a chat or command filter criterion.
+     *
+     * @param sound               The sound to play when the message matches the criterion.
+     * @param preventDefaultSound Whether the default sound of sounds.yml should not play if this sound plays.
+     * @param preventOtherFilters Whether criteria after this one should not play if this sound plays.
+     */
+    record FilterSound(@NotNull PlayableRichSound sound, boolean preventDefaultSound, boolean preventOtherFilters) {
     }
 }
@@ -25,7 +25,7 @@ import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
-import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -37,14 +37,20 @@ import org.bukkit.persistence.PersistentDataType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 public final class OnEntityDamageByEntity extends PMSListener {
     private static final @NotNull Pattern comma = Pattern.compile(",");
     private final @NotNull NamespacedKey killerUUID;
-    private @Nullable HashSet<PlayableRichSound> conditions;
+    /**
+     * The conditions of hit sounds.yml by the damager entity type they match, in the order they are in the configuration.
+     */
+    private volatile @Nullable EnumMap<EntityType, HitCondition[]> conditionsByDamager;
 
     public OnEntityDamageByEntity(@NotNull PlayMoreSounds plugin) {
         super(plugin);
@@ -52,23 +58,77 @@ public final class OnEntityDamageByEntity extends PMSListener {
         this.killerUUID = new NamespacedKey(plugin, "killer_uuid");
     }
 
-    private static boolean matchesCondition(String condition, Entity damager, Entity victim, Material itemInDamagerHand) {
-        try {
-            // Getting the criterion of the condition and removing spaces, so everything works as intended on matchesCriterion.
-            int hitIndex = condition.indexOf("hit");
-            int holdingIndex = condition.indexOf("holding");
-            var damagerCriterion = condition.substring(0, hitIndex).replace(" ", "");
-            var victimCriterion = condition.substring(hitIndex + 4, holdingIndex).replace(" ", "");
-            var itemCriterion = condition.substring(holdingIndex + 7).replace(" ", "");
-
-            return matchesCriterion(damagerCriterion, damager.getType().name()) &&
-                    matchesCriterion(victimCriterion, victim.getType().name()) &&
-                    matchesCriterion(itemCriterion, itemInDamagerHand.name());
-        } catch (Exception ignored) {
-            // If the user got the syntax wrong it will just return false.
+    /**
+     * Parses a condition like "PLAYER hit ZOMBIE holding EndsWith[SWORD]" into the sets of entities and items it matches.
+     *
+     * @return The parsed condition or null if the condition syntax is invalid.
+     */
+    private static @Nullable HitCondition parseCondition(@NotNull String condition, @NotNull PlayableRichSound sound, @NotNull ConfigurationSection section) {
+        int hitIndex = condition.indexOf("hit");
+        int holdingIndex = condition.indexOf("holding");
+        if (hitIndex == -1 || holdingIndex == -1 || hitIndex + 4 > holdingIndex) return null;
+
+        // Removing spaces, so everything works as intended on matchesCriterion.
+        var damagerCriterion = condition.substring(0, hitIndex).replace(" ", "");
+        var victimCriterion = condition.substring(hitIndex + 4, holdingIndex).replace(" ", "");
+        var itemCriterion = condition.substring(holdingIndex + 7).replace(" ", "");
+
+        return new HitCondition(sound, matchingEnums(damagerCriterion, EntityType.class), matchingEnums(victimCriterion, EntityType.class),
+                matchingEnums(itemCriterion, Material.class),
+                section.getBoolean("Prevent Other Sounds.Default Sound").orElse(false),
+                section.getBoolean("Prevent Other Sounds.Other Conditions").orElse(false));
+    }
+
+    /**
+     * Tests the criterion against every constant of the enum.
+     *
+     * @return The constants that match the criterion, or null if the criterion matches anything.
+     */
+    private static <E extends Enum<E>> @Nullable EnumSet<E> matchingEnums(@NotNull String criterion, @NotNull Class<E> enumClass) {
+        if (criterion.toLowerCase().startsWith("any")) return null;
+
+        EnumSet<E> matching = EnumSet.noneOf(enumClass);
+
+        for (E constant : enumClass.getEnumConstants()) {
+            String name = constant.name();
+            // Legacy materials are never in an entity's hand.
+            if (name.startsWith("LEGACY_")) continue;
+            if (matchesCriterion(criterion, name)) matching.add(constant);
         }
 
-        return false;
+        return matching;
+    }
+
+    /**
+     * Compiles the enabled conditions of hit sounds.yml and indexes them by damager type.
+     *
+     * @param hitSounds The hit sounds configuration.
+     * @return The conditions by the damager types they match, in configuration order, or null if there are no conditions.
+     */
+    static @Nullable EnumMap<EntityType, HitCondition[]> compileConditions(@NotNull ConfigurationSection hitSounds) {
+        EnumMap<EntityType, ArrayList<HitCondition>> conditions = null;
+
+        for (Map.Entry<String, Object> condition : hitSounds.getNodes().entrySet()) {
+            if (condition.getValue() instanceof ConfigurationSection conditionSection) {
+                PlayableRichSound sound = getRichSound(conditionSection);
+                if (sound == null) continue;
+
+                HitCondition hitCondition = parseCondition(condition.getKey(), sound, conditionSection);
+                // If the user got the syntax wrong it will never play.
+                if (hitCondition == null) continue;
+
+                if (conditions == null) conditions = new EnumMap<>(EntityType.class);
+
+                for (EntityType damagerType : hitCondition.damagers == null ? EnumSet.allOf(EntityType.class) : hitCondition.damagers)
+                    conditions.computeIfAbsent(damagerType, k -> new ArrayList<>()).add(hitCondition);
+            }
+        }
+
+        if (conditions == null) return null;
+
+        var compiled = new EnumMap<EntityType, HitCondition[]>(EntityType.class);
+        conditions.forEach((type, list) -> compiled.put(type, list.toArray(new HitCondition[0])));
+        return compiled;
     }
 
     static boolean matchesCriterion(String criterion, String value) {
@@ -128,28 +188,24 @@ public final class OnEntityDamageByEntity extends PMSListener {
         return "Entity Hit";
     }
 
+    @Override
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS, Configurations.HIT_SOUNDS);
+    }
+
     @Override
     public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
         var hitSounds = Configurations.HIT_SOUNDS.getConfigurationHolder().getConfiguration();
 
-        // Adding specific hit sound conditions to map.
-        conditions = null;
-        for (Map.Entry<String, Object> condition : hitSounds.getNodes().entrySet()) {
-            if (condition.getValue() instanceof ConfigurationSection conditionSection) {
-                if (conditionSection.getBoolean("Enabled").orElse(false)) {
-                    if (conditions == null) conditions = new HashSet<>();
-                    conditions.add(getRichSound(conditionSection));
-                }
-            }
-        }
+        conditionsByDamager = compileConditions(hitSounds);
 
         setRichSound(getRichSound(sounds.getConfigurationSection(getName())));
 
         // Player Kill and Player Killed sounds depend on this listener to know who is the killer.
         boolean playerKillKilledEnabled = sounds.getBoolean("Player Kill.Enabled").orElse(false) || sounds.getBoolean("Player Killed.Enabled").orElse(false);
 
-        if (getRichSound() != null || conditions != null || playerKillKilledEnabled) {
+        if (getRichSound() != null || conditionsByDamager != null || playerKillKilledEnabled) {
             if (!isLoaded()) {
                 Bukkit.getPluginManager().registerEvents(this, plugin);
                 setLoaded(true);
@@ -195,32 +251,47 @@ public final class OnEntityDamageByEntity extends PMSListener {
         }
 
         // If the default sound should play.
-        boolean defaultSound = getRichSound() != null;
+        PlayableRichSound defaultSound = getRichSound();
+
+        EnumMap<EntityType, HitCondition[]> conditionsByDamager = this.conditionsByDamager;
+        HitCondition[] conditions = conditionsByDamager == null ? null : conditionsByDamager.get(damager.getType());
 
         if (conditions != null) {
+            EntityType victimType = victim.getType();
+
             // Checking if any condition on hit sounds.yml matches this scenario.
-            for (PlayableRichSound condition : conditions) {
-                if (!event.isCancelled() || !condition.isCancellable()) {
-                    ConfigurationSection conditionSection = condition.getSection();
+            for (HitCondition condition : conditions) {
+                if (event.isCancelled() && condition.sound.isCancellable()) continue;
 
-                    if (matchesCondition(conditionSection.getName(), damager, victim, damagerHand)) {
-                        condition.play(damagerPlayer, damagerLocation);
+                if (condition.matches(victimType, damagerHand)) {
+                    condition.sound.play(damagerPlayer, damagerLocation);
 
-                        // Checking if default sound should play.
-                        if (conditionSection.getBoolean("Prevent Other Sounds.Default Sound").orElse(false))
-                            defaultSound = false;
+                    // Checking if default sound should play.
+                    if (condition.preventDefaultSound) defaultSound = null;
 
-                        // Checking if this loop should continue checking for other conditions.
-                        if (conditionSection.getBoolean("Prevent Other Sounds.Other Conditions").orElse(false))
-                            break;
-                    }
+                    // Checking if this loop should continue checking for other conditions.
+                    if (condition.preventOtherConditions) break;
                 }
             }
         }
 
         // Playing the default sound.
-        if (defaultSound && (!event.isCancelled() || !getRichSound().isCancellable())) {
-            getRichSound().play(damagerPlayer, damagerLocation);
+        if (defaultSound != null && (!event.isCancelled() || !defaultSound.isCancellable())) {
+            defaultSound.play(damagerPlayer, damagerLocation);
+        }
+    }
+
+    /**
+     * A condition of hit sounds.yml. Null sets match anything.
+     */
+    record HitCondition(@NotNull PlayableRichSound sound, @Nullable EnumSet<EntityType> damagers,
+                        @Nullable EnumSet<EntityType> victims, @Nullable EnumSet<Material> items,
+                        boolean preventDefaultSound, boolean preventOtherConditions) {
+        /**
+         * @return Whether a damager of this condition hitting this victim while holding this item matches the condition.
+         */
+        boolean matches(@NotNull EntityType victim, @NotNull Material item) {
+            return (victims == null || victims.contains(victim)) && (items == null || items.contains(item));
         }
     }
 }
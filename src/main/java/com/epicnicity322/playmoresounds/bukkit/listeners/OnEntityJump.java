@@ -36,9 +36,10 @@ public final class OnEntityJump extends PMSListener {
 
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onEntityJump(EntityJumpEvent event) {
+        var entity = event.getEntity();
         var sound = getRichSound();
 
-        if (!event.isCancelled() || !sound.isCancellable())
-            sound.play(event.getEntity().getLocation());
+        if ((!event.isCancelled() || !sound.isCancellable()) && !isCoolingDown(entity))
+            sound.play(entity.getLocation());
     }
 }
@@ -19,9 +19,7 @@
 package com.epicnicity322.playmoresounds.bukkit.listeners;
 
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
-import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
-import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -31,11 +29,11 @@ import org.bukkit.event.HandlerList;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.EnumSet;
+import java.util.Set;
 
 public final class OnInventoryClick extends PMSListener {
-    private final @NotNull HashMap<String, PlayableRichSound> criteriaSounds = new HashMap<>();
+    private volatile @NotNull CriterionSound[] criteria = new CriterionSound[0];
 
     public OnInventoryClick(@NotNull PlayMoreSounds plugin) {
         super(plugin);
@@ -47,23 +45,21 @@ public final class OnInventoryClick extends PMSListener {
     }
 
     @Override
-    public void load() {
-        criteriaSounds.clear();
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS, Configurations.ITEMS_CLICKED);
+    }
 
+    @Override
+    public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
-        var itemsClicked = Configurations.ITEMS_CLICKED.getConfigurationHolder().getConfiguration();
 
-        for (Map.Entry<String, Object> node : itemsClicked.getNodes().entrySet()) {
-            if (node.getValue() instanceof ConfigurationSection section) {
-                if (section.getBoolean("Enabled").orElse(false) && section.contains("Sounds")) {
-                    criteriaSounds.put(node.getKey(), getRichSound(section));
-                }
-            }
-        }
+        criteria = compileCriteria(Configurations.ITEMS_CLICKED.getConfigurationHolder().getConfiguration());
+        var section = sounds.getConfigurationSection(getName());
 
-        setRichSound(getRichSound(sounds.getConfigurationSection(getName())));
+        setRichSound(getRichSound(section));
+        loadCooldown(section);
 
-        if (getRichSound() != null || !criteriaSounds.isEmpty()) {
+        if (getRichSound() != null || criteria.length != 0) {
             if (!isLoaded()) {
                 Bukkit.getPluginManager().registerEvents(this, plugin);
                 setLoaded(true);
@@ -88,24 +84,30 @@ public final class OnInventoryClick extends PMSListener {
 
         var player = (Player) event.getWhoClicked();
         var defaultSound = getRichSound();
+        boolean cooldownTaken = false;
         String material = item.getType().name();
 
-        for (Map.Entry<String, PlayableRichSound> criterion : criteriaSounds.entrySet()) {
-            if (OnEntityDamageByEntity.matchesCriterion(criterion.getKey(), material)) {
-                var criterionSound = criterion.getValue();
+        for (CriterionSound criterion : criteria) {
+            if (OnEntityDamageByEntity.matchesCriterion(criterion.criterion(), material)) {
+                var criterionSound = criterion.sound();
 
                 if (!event.isCancelled() || !criterionSound.isCancellable()) {
+                    if (!cooldownTaken) {
+                        if (isCoolingDown(player)) return;
+                        cooldownTaken = true;
+                    }
+
                     criterionSound.play(player);
 
-                    if (criterionSound.getSection().getBoolean("Prevent Other Sounds.Default Sound").orElse(false))
+                    if (criterionSound.getCompiled().preventsOtherDefaultSound())
                         defaultSound = null;
-                    if (criterionSound.getSection().getBoolean("Prevent Other Sounds.Other Criteria").orElse(false))
+                    if (criterionSound.getCompiled().preventsOtherCriteria())
                         break;
                 }
             }
         }
 
-        if (defaultSound != null && (!event.isCancelled() || !defaultSound.isCancellable()))
+        if (defaultSound != null && (!event.isCancelled() || !defaultSound.isCancellable()) && (cooldownTaken || !isCoolingDown(player)))
             defaultSound.play(player);
     }
 }
@@ -19,9 +19,7 @@
 package com.epicnicity322.playmoresounds.bukkit.listeners;
 
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
-import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
-import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -29,11 +27,11 @@ import org.bukkit.event.HandlerList;
 import org.bukkit.event.player.PlayerAnimationEvent;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.EnumSet;
+import java.util.Set;
 
 public final class OnPlayerAnimation extends PMSListener {
-    private final @NotNull HashMap<String, PlayableRichSound> criteriaSounds = new HashMap<>();
+    private volatile @NotNull CriterionSound[] criteria = new CriterionSound[0];
 
     public OnPlayerAnimation(@NotNull PlayMoreSounds plugin) {
         super(plugin);
@@ -45,23 +43,21 @@ public final class OnPlayerAnimation extends PMSListener {
     }
 
     @Override
-    public void load() {
-        criteriaSounds.clear();
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS, Configurations.ITEMS_SWUNG);
+    }
 
+    @Override
+    public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
-        var itemsSwung = Configurations.ITEMS_SWUNG.getConfigurationHolder().getConfiguration();
 
-        for (Map.Entry<String, Object> node : itemsSwung.getNodes().entrySet()) {
-            if (node.getValue() instanceof ConfigurationSection section) {
-                if (section.getBoolean("Enabled").orElse(false) && section.contains("Sounds")) {
-                    criteriaSounds.put(node.getKey(), getRichSound(section));
-                }
-            }
-        }
+        criteria = compileCriteria(Configurations.ITEMS_SWUNG.getConfigurationHolder().getConfiguration());
+        var section = sounds.getConfigurationSection(getName());
 
-        setRichSound(getRichSound(sounds.getConfigurationSection(getName())));
+        setRichSound(getRichSound(section));
+        loadCooldown(section);
 
-        if (getRichSound() != null || !criteriaSounds.isEmpty()) {
+        if (getRichSound() != null || criteria.length != 0) {
             if (!isLoaded()) {
                 Bukkit.getPluginManager().registerEvents(this, plugin);
                 setLoaded(true);
@@ -78,25 +74,30 @@ public final class OnPlayerAnimation extends PMSListener {
     public void onPlayerAnimation(PlayerAnimationEvent event) {
         var player = event.getPlayer();
         var sound = getRichSound();
+        boolean cooldownTaken = false;
         String material = player.getInventory().getItemInMainHand().getType().name();
 
-        for (Map.Entry<String, PlayableRichSound> criterion : criteriaSounds.entrySet()) {
-            if (OnEntityDamageByEntity.matchesCriterion(criterion.getKey(), material)) {
-                var criterionSound = criterion.getValue();
+        for (CriterionSound criterion : criteria) {
+            if (OnEntityDamageByEntity.matchesCriterion(criterion.criterion(), material)) {
+                var criterionSound = criterion.sound();
 
                 if (!event.isCancelled() || !criterionSound.isCancellable()) {
+                    if (!cooldownTaken) {
+                        if (isCoolingDown(player)) return;
+                        cooldownTaken = true;
+                    }
+
                     criterionSound.play(player);
 
-                    if (criterionSound.getSection().getBoolean("Prevent Other Sounds.Default Sound").orElse(false))
+                    if (criterionSound.getCompiled().preventsOtherDefaultSound())
                         sound = null;
-                    if (criterionSound.getSection().getBoolean("Prevent Other Sounds.Other Criteria").orElse(false))
+                    if (criterionSound.getCompiled().preventsOtherCriteria())
                         break;
                 }
             }
         }
 
-        if (sound != null)
-            if (!event.isCancelled() || !sound.isCancellable())
-                sound.play(player);
+        if (sound != null && (!event.isCancelled() || !sound.isCancellable()) && (cooldownTaken || !isCoolingDown(player)))
+            sound.play(player);
     }
 }
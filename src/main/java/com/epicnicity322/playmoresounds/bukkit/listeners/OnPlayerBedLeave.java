@@ -27,6 +27,9 @@ import org.bukkit.event.HandlerList;
 import org.bukkit.event.player.PlayerBedLeaveEvent;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public final class OnPlayerBedLeave extends PMSListener {
     private PlayableRichSound bedLeave;
     private PlayableRichSound wakeUp;
@@ -40,6 +43,11 @@ public final class OnPlayerBedLeave extends PMSListener {
         return "Bed Leave|Wake Up";
     }
 
+    @Override
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS);
+    }
+
     @Override
     public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
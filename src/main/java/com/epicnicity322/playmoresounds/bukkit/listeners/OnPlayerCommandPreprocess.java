@@ -21,7 +21,7 @@ package com.epicnicity322.playmoresounds.bukkit.listeners;
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
-import com.epicnicity322.yamlhandler.ConfigurationSection;
+import com.epicnicity322.playmoresounds.core.util.FilterMatcher;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -29,12 +29,12 @@ import org.bukkit.event.HandlerList;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 
 public final class OnPlayerCommandPreprocess extends PMSListener {
-    private final @NotNull HashMap<String, HashSet<PlayableRichSound>> filtersAndCriteria = new HashMap<>();
+    private volatile @NotNull FilterMatcher<OnAsyncPlayerChat.FilterSound> filters = new FilterMatcher<>(Collections.emptyList());
 
     public OnPlayerCommandPreprocess(@NotNull PlayMoreSounds plugin) {
         super(plugin);
@@ -46,32 +46,18 @@ public final class OnPlayerCommandPreprocess extends PMSListener {
     }
 
     @Override
-    public void load() {
-        filtersAndCriteria.clear();
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS, Configurations.COMMANDS);
+    }
 
+    @Override
+    public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
-        var commandTriggers = Configurations.COMMANDS.getConfigurationHolder().getConfiguration();
-
-        for (Map.Entry<String, Object> filter : commandTriggers.getNodes().entrySet()) {
-            if (filter.getValue() instanceof ConfigurationSection filterSection) {
-                HashSet<PlayableRichSound> criteria = new HashSet<>();
-
-                for (Map.Entry<String, Object> criterion : filterSection.getNodes().entrySet()) {
-                    if (criterion.getValue() instanceof ConfigurationSection criterionSection) {
-
-                        if (criterionSection.getBoolean("Enabled").orElse(false)) {
-                            criteria.add(getRichSound(criterionSection));
-                        }
-                    }
-                }
-
-                if (!criteria.isEmpty()) filtersAndCriteria.put(filter.getKey(), criteria);
-            }
-        }
 
+        filters = OnAsyncPlayerChat.compileFilters(Configurations.COMMANDS.getConfigurationHolder().getConfiguration());
         setRichSound(getRichSound(sounds.getConfigurationSection(getName())));
 
-        if (getRichSound() != null || !filtersAndCriteria.isEmpty()) {
+        if (getRichSound() != null || !filters.isEmpty()) {
             if (!isLoaded()) {
                 Bukkit.getPluginManager().registerEvents(this, plugin);
                 setLoaded(true);
@@ -88,28 +74,20 @@ public final class OnPlayerCommandPreprocess extends PMSListener {
     public void onPlayerCommandPreprocess(PlayerCommandPreprocessEvent event) {
         var message = event.getMessage();
         var player = event.getPlayer();
-        boolean defaultSound = getRichSound() != null;
+        PlayableRichSound defaultSound = getRichSound();
 
-        filterLoop:
-        for (Map.Entry<String, HashSet<PlayableRichSound>> filter : filtersAndCriteria.entrySet()) {
-            for (var criteria : filter.getValue()) {
-                ConfigurationSection criteriaSection = criteria.getSection();
+        for (OnAsyncPlayerChat.FilterSound filterSound : filters.match(message)) {
+            PlayableRichSound sound = filterSound.sound();
 
-                if (!event.isCancelled() || !criteria.isCancellable()) {
-                    if (OnAsyncPlayerChat.matchesFilter(filter.getKey(), criteriaSection.getName(), message)) {
-                        criteria.play(player);
+            if (event.isCancelled() && sound.isCancellable()) continue;
 
-                        if (criteriaSection.getBoolean("Prevent Other Sounds.Default Sound").orElse(false))
-                            defaultSound = false;
+            sound.play(player);
 
-                        if (criteriaSection.getBoolean("Prevent Other Sounds.Other Filters").orElse(false))
-                            break filterLoop;
-                    }
-                }
-            }
+            if (filterSound.preventDefaultSound()) defaultSound = null;
+            if (filterSound.preventOtherFilters()) break;
         }
 
-        if (defaultSound && (!event.isCancelled() || !getRichSound().isCancellable()))
-            getRichSound().play(player);
+        if (defaultSound != null && (!event.isCancelled() || !defaultSound.isCancellable()))
+            defaultSound.play(player);
     }
 }
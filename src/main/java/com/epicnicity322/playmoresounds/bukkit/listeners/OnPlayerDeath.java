@@ -34,16 +34,18 @@ import org.bukkit.persistence.PersistentDataType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 public final class OnPlayerDeath extends PMSListener {
     private final @NotNull NamespacedKey lastDamageKey;
     private final @NotNull NamespacedKey killerUUIDKey;
-    private @Nullable HashMap<String, PlayableRichSound> specificDeaths;
-    private @Nullable PlayableRichSound playerKilled;
-    private @Nullable PlayableRichSound playerKill;
+    private volatile @Nullable Map<String, PlayableRichSound> specificDeaths;
+    private volatile @Nullable PlayableRichSound playerKilled;
+    private volatile @Nullable PlayableRichSound playerKill;
 
     public OnPlayerDeath(@NotNull PlayMoreSounds plugin) {
         super(plugin);
@@ -56,21 +58,27 @@ public final class OnPlayerDeath extends PMSListener {
         return "Player Death";
     }
 
+    @Override
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS, Configurations.DEATH_TYPES);
+    }
+
     @Override
     public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
         var deathTypes = Configurations.DEATH_TYPES.getConfigurationHolder().getConfiguration();
 
         // Adding specific death sounds to map.
-        specificDeaths = null;
+        HashMap<String, PlayableRichSound> specificDeaths = null;
         for (Map.Entry<String, Object> deathType : deathTypes.getNodes().entrySet()) {
             if (deathType.getValue() instanceof ConfigurationSection deathTypeSection) {
-                if (deathTypeSection.getBoolean("Enabled").orElse(false)) {
-                    if (specificDeaths == null) specificDeaths = new HashMap<>();
-                    specificDeaths.put(deathType.getKey().toUpperCase(), getRichSound(deathTypeSection));
-                }
+                PlayableRichSound sound = getRichSound(deathTypeSection);
+                if (sound == null) continue;
+                if (specificDeaths == null) specificDeaths = new HashMap<>();
+                specificDeaths.put(deathType.getKey().toUpperCase(), sound);
             }
         }
+        this.specificDeaths = specificDeaths == null ? null : Map.copyOf(specificDeaths);
 
         setRichSound(getRichSound(sounds.getConfigurationSection(getName())));
         playerKill = getRichSound(sounds.getConfigurationSection("Player Kill"));
@@ -93,6 +101,9 @@ public final class OnPlayerDeath extends PMSListener {
     public void onPlayerDeath(PlayerDeathEvent event) {
         var player = event.getEntity();
         var playerData = player.getPersistentDataContainer();
+        // Reading the sounds once, they can be replaced by a reload in another thread.
+        PlayableRichSound playerKill = this.playerKill, playerKilled = this.playerKilled, defaultSound = getRichSound();
+        Map<String, PlayableRichSound> specificDeaths = this.specificDeaths;
 
         // Checking if player was killed by another player.
         if (playerKill != null || playerKilled != null) {
@@ -109,7 +120,7 @@ public final class OnPlayerDeath extends PMSListener {
                     playerKilled.play(player);
 
                     // If the death sounds, specific or default should be prevented from being played.
-                    if (playerKilled.getSection().getBoolean("Prevent Death Sounds").orElse(false)) return;
+                    if (playerKilled.getCompiled().preventsDeathSounds()) return;
                 }
             }
         }
@@ -126,14 +137,14 @@ public final class OnPlayerDeath extends PMSListener {
                     specificDeathSound.play(player);
 
                     // If the default death sound should be prevented from being played.
-                    if (specificDeathSound.getSection().getBoolean("Prevent Default Sound").orElse(false)) return;
+                    if (specificDeathSound.getCompiled().preventsDefaultSound()) return;
                 }
             }
         }
 
         // Playing default death sound.
-        if (getRichSound() != null) {
-            getRichSound().play(player);
+        if (defaultSound != null) {
+            defaultSound.play(player);
         }
     }
 
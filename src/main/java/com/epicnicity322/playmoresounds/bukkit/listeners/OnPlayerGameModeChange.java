@@ -29,11 +29,14 @@ import org.bukkit.event.HandlerList;
 import org.bukkit.event.player.PlayerGameModeChangeEvent;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 public final class OnPlayerGameModeChange extends PMSListener {
-    private final @NotNull HashMap<String, PlayableRichSound> specificGameModes = new HashMap<>();
+    private volatile @NotNull Map<String, PlayableRichSound> specificGameModes = Collections.emptyMap();
 
     public OnPlayerGameModeChange(@NotNull PlayMoreSounds plugin) {
         super(plugin);
@@ -45,20 +48,24 @@ public final class OnPlayerGameModeChange extends PMSListener {
     }
 
     @Override
-    public void load() {
-        specificGameModes.clear();
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS, Configurations.GAME_MODES);
+    }
 
+    @Override
+    public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
         var gameModes = Configurations.GAME_MODES.getConfigurationHolder().getConfiguration();
+        var specificGameModes = new HashMap<String, PlayableRichSound>();
 
         for (Map.Entry<String, Object> gameMode : gameModes.getNodes().entrySet()) {
             if (gameMode.getValue() instanceof ConfigurationSection gameModeSection) {
-                if (gameModeSection.getBoolean("Enabled").orElse(false)) {
-                    specificGameModes.put(gameMode.getKey().toUpperCase(), getRichSound(gameModeSection));
-                }
+                PlayableRichSound sound = getRichSound(gameModeSection);
+                if (sound != null) specificGameModes.put(gameMode.getKey().toUpperCase(), sound);
             }
         }
 
+        this.specificGameModes = Map.copyOf(specificGameModes);
         setRichSound(getRichSound(sounds.getConfigurationSection(getName())));
 
         if (getRichSound() != null || !specificGameModes.isEmpty()) {
@@ -78,18 +85,18 @@ public final class OnPlayerGameModeChange extends PMSListener {
     public void onPlayerGameModeChange(PlayerGameModeChangeEvent event) {
         var player = event.getPlayer();
         PlayableRichSound specificGameModeSound = specificGameModes.get(event.getNewGameMode().name());
-        boolean defaultSound = getRichSound() != null;
+        PlayableRichSound defaultSound = getRichSound();
 
         if (specificGameModeSound != null) {
             if (!event.isCancelled() || !specificGameModeSound.isCancellable()) {
                 specificGameModeSound.play(player);
 
-                if (specificGameModeSound.getSection().getBoolean("Prevent Default Sound").orElse(false))
-                    defaultSound = false;
+                if (specificGameModeSound.getCompiled().preventsDefaultSound())
+                    defaultSound = null;
             }
         }
 
-        if (defaultSound && (!event.isCancelled() || !getRichSound().isCancellable()))
-            getRichSound().play(player);
+        if (defaultSound != null && (!event.isCancelled() || !defaultSound.isCancellable()))
+            defaultSound.play(player);
     }
 }
@@ -19,9 +19,7 @@
 package com.epicnicity322.playmoresounds.bukkit.listeners;
 
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
-import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
-import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -30,11 +28,11 @@ import org.bukkit.event.player.PlayerItemHeldEvent;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.EnumSet;
+import java.util.Set;
 
 public final class OnPlayerItemHeld extends PMSListener {
-    private final @NotNull HashMap<String, PlayableRichSound> criteriaSounds = new HashMap<>();
+    private volatile @NotNull CriterionSound[] criteria = new CriterionSound[0];
 
     public OnPlayerItemHeld(@NotNull PlayMoreSounds plugin) {
         super(plugin);
@@ -46,23 +44,21 @@ public final class OnPlayerItemHeld extends PMSListener {
     }
 
     @Override
-    public void load() {
-        criteriaSounds.clear();
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS, Configurations.ITEMS_HELD);
+    }
 
+    @Override
+    public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
-        var itemsHeld = Configurations.ITEMS_HELD.getConfigurationHolder().getConfiguration();
 
-        for (Map.Entry<String, Object> node : itemsHeld.getNodes().entrySet()) {
-            if (node.getValue() instanceof ConfigurationSection section) {
-                if (section.getBoolean("Enabled").orElse(false) && section.contains("Sounds")) {
-                    criteriaSounds.put(node.getKey(), getRichSound(section));
-                }
-            }
-        }
+        criteria = compileCriteria(Configurations.ITEMS_HELD.getConfigurationHolder().getConfiguration());
+        var section = sounds.getConfigurationSection(getName());
 
-        setRichSound(getRichSound(sounds.getConfigurationSection(getName())));
+        setRichSound(getRichSound(section));
+        loadCooldown(section);
 
-        if (getRichSound() != null || !criteriaSounds.isEmpty()) {
+        if (getRichSound() != null || criteria.length != 0) {
             if (!isLoaded()) {
                 Bukkit.getPluginManager().registerEvents(this, plugin);
                 setLoaded(true);
@@ -77,30 +73,36 @@ public final class OnPlayerItemHeld extends PMSListener {
 
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerItemHeld(PlayerItemHeldEvent event) {
-        var sound = getRichSound();
         var player = event.getPlayer();
+        var sound = getRichSound();
+        boolean cooldownTaken = false;
         ItemStack item = player.getInventory().getItem(event.getNewSlot());
 
         if (item != null) {
             String material = item.getType().name();
 
-            for (Map.Entry<String, PlayableRichSound> criterion : criteriaSounds.entrySet()) {
-                if (OnEntityDamageByEntity.matchesCriterion(criterion.getKey(), material)) {
-                    var criterionSound = criterion.getValue();
+            for (CriterionSound criterion : criteria) {
+                if (OnEntityDamageByEntity.matchesCriterion(criterion.criterion(), material)) {
+                    var criterionSound = criterion.sound();
 
                     if (!event.isCancelled() || !criterionSound.isCancellable()) {
+                        if (!cooldownTaken) {
+                            if (isCoolingDown(player)) return;
+                            cooldownTaken = true;
+                        }
+
                         criterionSound.play(player);
 
-                        if (criterionSound.getSection().getBoolean("Prevent Other Sounds.Default Sound").orElse(false))
+                        if (criterionSound.getCompiled().preventsOtherDefaultSound())
                             sound = null;
-                        if (criterionSound.getSection().getBoolean("Prevent Other Sounds.Other Criteria").orElse(false))
+                        if (criterionSound.getCompiled().preventsOtherCriteria())
                             break;
                     }
                 }
             }
         }
 
-        if (sound != null && (!event.isCancelled() || !sound.isCancellable()))
+        if (sound != null && (!event.isCancelled() || !sound.isCancellable()) && (cooldownTaken || !isCoolingDown(player)))
             sound.play(player);
     }
 }
@@ -25,6 +25,8 @@ import com.epicnicity322.playmoresounds.bukkit.region.RegionManager;
 import com.epicnicity322.playmoresounds.bukkit.region.SoundRegion;
 import com.epicnicity322.playmoresounds.bukkit.region.events.RegionEnterEvent;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
+import com.epicnicity322.playmoresounds.bukkit.sound.SoundManager;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
 import com.epicnicity322.playmoresounds.bukkit.util.UpdateManager;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
 import com.google.common.io.BaseEncoding;
@@ -35,6 +37,8 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Set;
+
 public final class OnPlayerJoin implements Listener {
     // 1.17 does not have this method.
     private static final boolean hasCustomResourcePackPrompt = ReflectionUtil.getMethod(Player.class, "setResourcePack", String.class, byte[].class, String.class) != null;
@@ -88,7 +92,8 @@ public final class OnPlayerJoin implements Listener {
     public void onPlayerJoin(PlayerJoinEvent event) {
         var lang = PlayMoreSounds.getLanguage();
         var player = event.getPlayer();
-        var location = player.getLocation();
+
+        SoundManager.loadSoundsState(player);
 
         // Playing join sound
         if (player.hasPlayedBefore()) {
@@ -101,39 +106,41 @@ public final class OnPlayerJoin implements Listener {
 
         var config = Configurations.CONFIG.getConfigurationHolder().getConfiguration();
 
-        // Calling region enter event.
-        for (SoundRegion region : RegionManager.getRegions()) {
-            if (!region.isInside(location)) continue;
+        // Regions and biomes are evaluated in the join queue, so players joining at once are spread across ticks.
+        JoinQueue.add(player, () -> {
+            var location = player.getLocation();
 
-            var regionEnterEvent = new RegionEnterEvent(region, player, location, location);
+            // Calling region enter event.
+            Set<SoundRegion> regions = RegionManager.getRegionsAt(location);
+            OnPlayerMove.setRegionMembership(player, regions);
 
-            // Checking if event should be played only when player accepts resource pack.
-            if (resourcePack) {
-                OnPlayerResourcePackStatus.waitUntilResourcePackStatus(player, () -> Bukkit.getPluginManager().callEvent(regionEnterEvent));
-            } else {
-                Bukkit.getPluginManager().callEvent(regionEnterEvent);
+            for (SoundRegion region : regions) {
+                var regionEnterEvent = new RegionEnterEvent(region, player, location, location);
+
+                // Checking if event should be played only when player accepts resource pack.
+                if (resourcePack) {
+                    OnPlayerResourcePackStatus.waitUntilResourcePackStatus(player, () -> Bukkit.getPluginManager().callEvent(regionEnterEvent));
+                } else {
+                    Bukkit.getPluginManager().callEvent(regionEnterEvent);
+                }
             }
-        }
-
-        // Calling biome enter event.
-        String biome = location.getBlock().getBiome().name();
-        String world = location.getWorld().getName();
-        var biomesConfig = Configurations.BIOMES.getConfigurationHolder().getConfiguration();
-
-        if (biomesConfig.getBoolean(world + "." + biome + ".Enter.Enabled").orElse(false) || biomesConfig.getBoolean(world + "." + biome + ".Loop.Enabled").orElse(false)) {
-            // Checking if event should be played only when player accepts resource pack.
-            if (resourcePack) {
-                OnPlayerResourcePackStatus.waitUntilResourcePackStatus(player, () -> OnPlayerMove.checkBiomeEnterLeaveSounds(null, player, location, location, false));
-            } else {
-                OnPlayerMove.checkBiomeEnterLeaveSounds(null, player, location, location, false);
+
+            // Calling biome enter event.
+            if (OnPlayerMove.hasBiomeEnterSound(location.getWorld(), OnPlayerMove.getBiome(player, location))) {
+                // Checking if event should be played only when player accepts resource pack.
+                if (resourcePack) {
+                    OnPlayerResourcePackStatus.waitUntilResourcePackStatus(player, () -> OnPlayerMove.checkBiomeEnterLeaveSounds(null, player, location, location, false));
+                } else {
+                    OnPlayerMove.checkBiomeEnterLeaveSounds(null, player, location, location, false);
+                }
             }
-        }
+        });
 
         String url = config.getString("Resource Packs.URL").orElse("");
 
         // Setting the player's resource pack.
         if (resourcePack && !url.isEmpty())
-            Bukkit.getScheduler().runTaskLater(PlayMoreSounds.getInstance(), () -> {
+            TaskScheduler.runFor(PlayMoreSounds.getInstance(), player, () -> {
                 if (hasCustomResourcePackPrompt) {
                     player.setResourcePack(url, resourcePackHash, lang.getColored("Resource Packs.Request Message"));
                 } else {
@@ -36,9 +36,10 @@ public final class OnPlayerJump extends PMSListener {
 
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerJump(PlayerJumpEvent event) {
+        var player = event.getPlayer();
         var sound = getRichSound();
 
-        if (!event.isCancelled() || !sound.isCancellable())
-            sound.play(event.getPlayer());
+        if ((!event.isCancelled() || !sound.isCancellable()) && !isCoolingDown(player))
+            sound.play(player);
     }
 }
@@ -30,6 +30,9 @@ import org.bukkit.event.player.PlayerKickEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public final class OnPlayerKick extends PMSListener {
     private @Nullable PlayableRichSound playerBan;
 
@@ -37,6 +40,11 @@ public final class OnPlayerKick extends PMSListener {
         super(plugin);
     }
 
+    @Override
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS);
+    }
+
     @Override
     public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
@@ -25,13 +25,15 @@ import com.epicnicity322.playmoresounds.bukkit.region.SoundRegion;
 import com.epicnicity322.playmoresounds.bukkit.region.events.RegionEnterEvent;
 import com.epicnicity322.playmoresounds.bukkit.region.events.RegionLeaveEvent;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
-import com.epicnicity322.playmoresounds.bukkit.sound.SoundManager;
+import com.epicnicity322.playmoresounds.bukkit.sound.SoundStopper;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
 import com.epicnicity322.playmoresounds.core.sound.SoundType;
+import com.epicnicity322.playmoresounds.core.util.PMSHelper;
 import com.epicnicity322.yamlhandler.Configuration;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.block.Biome;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Cancellable;
@@ -39,68 +41,251 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class OnPlayerMove implements Listener {
     private static final @NotNull ConfigurationHolder biomes = Configurations.BIOMES.getConfigurationHolder();
-    private static final @NotNull HashMap<UUID, BukkitRunnable> biomesInLoop = new HashMap<>();
-    private static final @NotNull HashMap<String, HashSet<String>> soundsToStop = new HashMap<>();
+    /**
+     * The sounds of biomes.yml by world name and biome, replaced on every reload.
+     */
+    private static volatile @NotNull HashMap<String, EnumMap<Biome, BiomeSounds>> biomeSounds = new HashMap<>();
+    private static final @NotNull ConcurrentHashMap<UUID, BukkitRunnable> biomesInLoop = new ConcurrentHashMap<>();
+    /**
+     * The IDs of the regions each player is inside, updated every time region enter and leave events are called.
+     */
+    private static final @NotNull ConcurrentHashMap<UUID, HashSet<UUID>> regionMembership = new ConcurrentHashMap<>();
+    /**
+     * The biome each player was last seen in and the biome cell it was sampled from. Worlds store biomes in cells of
+     * 4x4x4 blocks, so the biome is only sampled again once the player moves to another cell.
+     */
+    private static final @NotNull ConcurrentHashMap<UUID, BiomeCell> biomeCells = new ConcurrentHashMap<>();
 
     static {
-        PlayMoreSounds.onDisable(() -> biomesInLoop.entrySet().removeIf(entry -> {
-            entry.getValue().cancel();
-            return true;
-        }));
+        Runnable biomeSoundsUpdater = () -> biomeSounds = compileBiomeSounds(biomes.getConfiguration());
+
+        PlayMoreSounds.onInstance(biomeSoundsUpdater);
+        PlayMoreSounds.onEnable(biomeSoundsUpdater); // Make sure to load once all configurations have been reloaded.
+        PlayMoreSounds.onReload(biomeSoundsUpdater);
+        PlayMoreSounds.onDisable(() -> {
+            biomesInLoop.entrySet().removeIf(entry -> {
+                entry.getValue().cancel();
+                return true;
+            });
+            regionMembership.clear();
+            biomeCells.clear();
+        });
     }
 
     static void callRegionEnterLeaveEvents(@Nullable Cancellable event, @NotNull Player player, @NotNull Location from, @NotNull Location to) {
-        for (SoundRegion region : RegionManager.getRegions()) {
-            boolean isInFrom = region.isInside(from);
-            boolean isInTo = region.isInside(to);
-
-            if (isInFrom && !isInTo) {
-                var regionLeaveEvent = new RegionLeaveEvent(region, player, from, to);
-                Bukkit.getPluginManager().callEvent(regionLeaveEvent);
-
-                if (regionLeaveEvent.isCancelled() && event != null)
-                    event.setCancelled(true);
-            } else if (!isInFrom && isInTo) {
-                var regionEnterEvent = new RegionEnterEvent(region, player, from, to);
-                Bukkit.getPluginManager().callEvent(regionEnterEvent);
-
-                if (regionEnterEvent.isCancelled() && event != null)
-                    event.setCancelled(true);
+        UUID playerId = player.getUniqueId();
+        HashSet<UUID> current = regionMembership.get(playerId);
+        // Players that were online before PlayMoreSounds was enabled.
+        if (current == null) current = regionIds(RegionManager.getRegionsAt(from));
+
+        Set<SoundRegion> inside = RegionManager.getRegionsAt(to);
+        if (current.isEmpty() && inside.isEmpty()) return;
+        HashSet<UUID> insideIds = regionIds(inside);
+
+        for (UUID regionId : current) {
+            if (insideIds.contains(regionId)) continue;
+            SoundRegion region = RegionManager.getRegion(regionId);
+            // Region was deleted while the player was inside it.
+            if (region == null) continue;
+
+            var regionLeaveEvent = new RegionLeaveEvent(region, player, from, to);
+            Bukkit.getPluginManager().callEvent(regionLeaveEvent);
+
+            if (regionLeaveEvent.isCancelled() && event != null)
+                event.setCancelled(true);
+        }
+
+        for (SoundRegion region : inside) {
+            if (current.contains(region.getId())) continue;
+
+            var regionEnterEvent = new RegionEnterEvent(region, player, from, to);
+            Bukkit.getPluginManager().callEvent(regionEnterEvent);
+
+            if (regionEnterEvent.isCancelled() && event != null)
+                event.setCancelled(true);
+        }
+
+        // If any region event cancelled the movement, the player is still in the same regions.
+        regionMembership.put(playerId, event != null && event.isCancelled() ? current : insideIds);
+    }
+
+    private static @NotNull HashSet<UUID> regionIds(@NotNull Set<SoundRegion> regions) {
+        var ids = new HashSet<UUID>((int) (regions.size() / .75f) + 1);
+        for (SoundRegion region : regions) ids.add(region.getId());
+        return ids;
+    }
+
+    /**
+     * Sets the regions a player is inside, without calling any event.
+     *
+     * @param player  The player that joined.
+     * @param regions The regions the player is inside.
+     */
+    static void setRegionMembership(@NotNull Player player, @NotNull Set<SoundRegion> regions) {
+        regionMembership.put(player.getUniqueId(), regionIds(regions));
+    }
+
+    /**
+     * Removes the regions a player is inside from memory.
+     *
+     * @param player The player that is leaving.
+     * @return The regions the player was inside.
+     */
+    static @NotNull Set<SoundRegion> removeRegionMembership(@NotNull Player player) {
+        HashSet<UUID> ids = regionMembership.remove(player.getUniqueId());
+        if (ids == null) return RegionManager.getRegionsAt(player.getLocation());
+
+        var regions = new HashSet<SoundRegion>((int) (ids.size() / .75f) + 1);
+        for (UUID regionId : ids) {
+            SoundRegion region = RegionManager.getRegion(regionId);
+            if (region != null) regions.add(region);
+        }
+        return regions;
+    }
+
+    /**
+     * Checks if the player was inside the region the last time they moved.
+     *
+     * @param player   The {@link UUID} of the player.
+     * @param regionId The id of the region.
+     * @return Whether the player is inside the region.
+     */
+    static boolean isInsideRegion(@NotNull UUID player, @NotNull UUID regionId) {
+        HashSet<UUID> ids = regionMembership.get(player);
+        return ids != null && ids.contains(regionId);
+    }
+
+    /**
+     * Compiles biomes.yml into a table of sounds by world name and biome.
+     */
+    private static @NotNull HashMap<String, EnumMap<Biome, BiomeSounds>> compileBiomeSounds(@NotNull Configuration biomesConfiguration) {
+        var table = new HashMap<String, EnumMap<Biome, BiomeSounds>>();
+
+        for (var worldNode : biomesConfiguration.getNodes().entrySet()) {
+            if (!(worldNode.getValue() instanceof ConfigurationSection worldSection)) continue;
+            var worldBiomes = new EnumMap<Biome, BiomeSounds>(Biome.class);
+
+            for (var biomeNode : worldSection.getNodes().entrySet()) {
+                if (!(biomeNode.getValue() instanceof ConfigurationSection biomeSection)) continue;
+                Biome biome;
+
+                try {
+                    biome = Biome.valueOf(biomeNode.getKey());
+                } catch (IllegalArgumentException e) {
+                    // Biome does not exist in this version.
+                    continue;
+                }
+
+                ConfigurationSection enterSection = biomeSection.getConfigurationSection("Enter");
+                ConfigurationSection loopSection = biomeSection.getConfigurationSection("Loop");
+                PlayableRichSound enter = PMSListener.getRichSound(enterSection);
+                PlayableRichSound leave = PMSListener.getRichSound(biomeSection.getConfigurationSection("Leave"));
+                PlayableRichSound loop = PMSListener.getRichSound(loopSection);
+
+                if (enter == null && leave == null && loop == null) continue;
+
+                worldBiomes.put(biome, new BiomeSounds(enter, leave, loop,
+                        loop == null ? 0 : loopSection.getNumber("Delay").orElse(0).longValue(),
+                        loop == null ? 0 : loopSection.getNumber("Period").orElse(0).longValue(),
+                        loop != null && loopSection.getBoolean("Prevent Enter Sound").orElse(false),
+                        enter == null ? null : soundsToStopOnExit(enterSection),
+                        enter == null ? 0 : enterSection.getNumber("Stop On Exit.Delay").orElse(0).longValue(),
+                        loop == null ? null : soundsToStopOnExit(loopSection),
+                        loop == null ? 0 : loopSection.getNumber("Stop On Exit.Delay").orElse(0).longValue()));
             }
+
+            if (!worldBiomes.isEmpty()) table.put(worldNode.getKey(), worldBiomes);
         }
+
+        return table;
     }
 
-    static void checkBiomeEnterLeaveSounds(@Nullable Cancellable cancellable, @NotNull Player player, @NotNull Location from, @NotNull Location to, boolean checkDifferent) {
-        // Playing sounds for biomes.yml.
-        Configuration biomesConfiguration = biomes.getConfiguration();
+    private static @Nullable Set<String> soundsToStopOnExit(@NotNull ConfigurationSection section) {
+        if (!section.getBoolean("Stop On Exit.Enabled").orElse(false)) return null;
 
-        if (biomesConfiguration.contains(from.getWorld().getName()) || !biomesInLoop.isEmpty()) {
-            Biome fromBiome = from.getBlock().getBiome();
-            Biome toBiome = to.getBlock().getBiome();
+        var sounds = new HashSet<String>();
+        ConfigurationSection soundsSection = section.getConfigurationSection("Sounds");
 
-            if (!checkDifferent || fromBiome != toBiome) {
-                soundsToStop.entrySet().removeIf(entry -> {
-                    String key = entry.getKey();
+        if (soundsSection != null)
+            for (String sound : soundsSection.getNodes().keySet()) {
+                String soundToStop = soundsSection.getString(sound + ".Sound").orElse("");
+                soundToStop = SoundType.getPresentSoundNames().contains(soundToStop) ? SoundType.valueOf(soundToStop).getSound().orElse("") : soundToStop;
 
-                    if (key.startsWith(player.getUniqueId().toString())) {
-                        long delay = Long.parseLong(key.substring(key.indexOf(";") + 1));
+                // Sounds with invalid keys are never played, so there is nothing to stop.
+                if (PMSHelper.isNamespacedKey(soundToStop)) sounds.add(soundToStop);
+            }
 
-                        SoundManager.stopSounds(player, entry.getValue(), delay);
-                        return true;
-                    }
+        return Collections.unmodifiableSet(sounds);
+    }
+
+    private static @Nullable BiomeSounds getBiomeSounds(@NotNull World world, @NotNull Biome biome) {
+        EnumMap<Biome, BiomeSounds> worldBiomes = biomeSounds.get(world.getName());
+        return worldBiomes == null ? null : worldBiomes.get(biome);
+    }
+
+    /**
+     * @return Whether the biome in this world has an enter or loop sound set in biomes.yml.
+     */
+    static boolean hasBiomeEnterSound(@NotNull World world, @NotNull Biome biome) {
+        BiomeSounds sounds = getBiomeSounds(world, biome);
+        return sounds != null && (sounds.enter != null || sounds.loop != null);
+    }
+
+    /**
+     * Gets the biome at the location the player is in, sampling the world only if the location is in a different biome
+     * cell than the last location looked up for this player.
+     *
+     * @param player   The player in the location.
+     * @param location The location of the player.
+     * @return The biome at the location.
+     */
+    static @NotNull Biome getBiome(@NotNull Player player, @NotNull Location location) {
+        World world = location.getWorld();
+        int x = location.getBlockX(), y = location.getBlockY(), z = location.getBlockZ();
+        BiomeCell cell = biomeCells.get(player.getUniqueId());
+
+        if (cell != null && cell.x == x >> 2 && cell.y == y >> 2 && cell.z == z >> 2 && cell.world.equals(world.getUID()))
+            return cell.biome;
+
+        Biome biome = world.getBiome(x, y, z);
+        biomeCells.put(player.getUniqueId(), new BiomeCell(world.getUID(), x >> 2, y >> 2, z >> 2, biome));
+        return biome;
+    }
+
+    /**
+     * Removes the biome the player was last seen in from memory.
+     *
+     * @param player The player that is leaving.
+     */
+    static void removeBiomeCell(@NotNull Player player) {
+        biomeCells.remove(player.getUniqueId());
+    }
 
-                    return false;
-                });
+    static void checkBiomeEnterLeaveSounds(@Nullable Cancellable cancellable, @NotNull Player player, @NotNull Location from, @NotNull Location to, boolean checkDifferent) {
+        // Playing sounds for biomes.yml.
+        HashMap<String, EnumMap<Biome, BiomeSounds>> table = biomeSounds;
+
+        if (table.containsKey(from.getWorld().getName()) || table.containsKey(to.getWorld().getName()) || !biomesInLoop.isEmpty()) {
+            // Moving inside the same biome cell never changes biome.
+            if (checkDifferent && from.getBlockX() >> 2 == to.getBlockX() >> 2 && from.getBlockY() >> 2 == to.getBlockY() >> 2
+                    && from.getBlockZ() >> 2 == to.getBlockZ() >> 2 && from.getWorld() == to.getWorld())
+                return;
+
+            Biome fromBiome = getBiome(player, from);
+            Biome toBiome = getBiome(player, to);
+
+            if (!checkDifferent || fromBiome != toBiome) {
+                SoundStopper.stopOnExit(player);
 
                 UUID key = player.getUniqueId();
 
@@ -109,49 +294,43 @@ public final class OnPlayerMove implements Listener {
                     biomesInLoop.remove(key);
                 }
 
-                ConfigurationSection loop = biomesConfiguration.getConfigurationSection(to.getWorld().getName() + '.' + toBiome.name() + ".Loop");
-                ConfigurationSection leave = checkDifferent ? biomesConfiguration.getConfigurationSection(from.getWorld().getName() + '.' + fromBiome.name() + ".Leave") : null;
+                World toWorld = to.getWorld();
+                BiomeSounds toSounds = getBiomeSounds(toWorld, toBiome);
+                BiomeSounds fromSounds = checkDifferent ? getBiomeSounds(from.getWorld(), fromBiome) : null;
                 boolean playEnterSound = true;
                 boolean cancelled = cancellable != null && cancellable.isCancelled();
 
-                if (loop != null) {
-                    var loopSound = new PlayableRichSound(loop);
-
-                    if (loopSound.isEnabled() && (!cancelled || !loopSound.isCancellable())) {
-                        long delay = loop.getNumber("Delay").orElse(0).longValue();
-                        long period = loop.getNumber("Period").orElse(0).longValue();
+                if (toSounds != null && toSounds.loop != null) {
+                    PlayableRichSound loopSound = toSounds.loop;
 
-                        biomesInLoop.put(key, loopSound.playInLoop(player, player::getLocation, delay, period, () -> {
-                            Configuration updatedBiomes = biomes.getConfiguration();
+                    if (!cancelled || !loopSound.isCancellable()) {
+                        biomesInLoop.put(key, loopSound.playInLoop(player, player::getLocation, toSounds.loopDelay, toSounds.loopPeriod, () -> {
+                            Location location = player.getLocation();
+                            if (location.getWorld() != toWorld || getBiome(player, location) != toBiome)
+                                return true;
 
-                            return player.getLocation().getBlock().getBiome() != toBiome
-                                    || !updatedBiomes.getBoolean(loop.getPath() + ".Enabled").orElse(false)
-                                    || !player.getWorld().equals(to.getWorld());
+                            // Breaking if loop was disabled on reload.
+                            BiomeSounds updatedSounds = getBiomeSounds(toWorld, toBiome);
+                            return updatedSounds == null || updatedSounds.loop == null;
                         }));
 
-                        stopOnExit(player, loop);
+                        stopOnExit(player, toSounds.loopStopSounds, toSounds.loopStopDelay);
 
-                        if (loop.getBoolean("Prevent Enter Sound").orElse(false)) playEnterSound = false;
+                        if (toSounds.preventEnterSound) playEnterSound = false;
                     }
                 }
 
-                if (playEnterSound) {
-                    var enter = biomesConfiguration.getConfigurationSection(to.getWorld().getName() + '.' + toBiome.name() + ".Enter");
+                if (playEnterSound && toSounds != null && toSounds.enter != null) {
+                    PlayableRichSound enterSound = toSounds.enter;
 
-                    if (enter != null) {
-                        var enterSound = new PlayableRichSound(enter);
-
-                        if (!cancelled || !enterSound.isCancellable()) {
-                            enterSound.play(player);
-
-                            if (enterSound.isEnabled())
-                                stopOnExit(player, enter);
-                        }
+                    if (!cancelled || !enterSound.isCancellable()) {
+                        enterSound.play(player);
+                        stopOnExit(player, toSounds.enterStopSounds, toSounds.enterStopDelay);
                     }
                 }
 
-                if (leave != null) {
-                    var leaveSound = new PlayableRichSound(leave);
+                if (fromSounds != null && fromSounds.leave != null) {
+                    PlayableRichSound leaveSound = fromSounds.leave;
 
                     if (!cancelled || !leaveSound.isCancellable()) leaveSound.play(player);
                 }
@@ -159,21 +338,8 @@ public final class OnPlayerMove implements Listener {
         }
     }
 
-    private static void stopOnExit(Player player, ConfigurationSection section) {
-        if (section.getBoolean("Stop On Exit.Enabled").orElse(false)) {
-            String key = player.getUniqueId() + ";" + section.getNumber("Stop On Exit.Delay").orElse(0);
-            HashSet<String> sounds = soundsToStop.getOrDefault(key, new HashSet<>());
-            ConfigurationSection soundsSection = section.getConfigurationSection("Sounds");
-
-            if (soundsSection != null)
-                for (String sound : soundsSection.getNodes().keySet()) {
-                    String soundToStop = soundsSection.getString(sound + ".Sound").orElse("");
-
-                    sounds.add(SoundType.getPresentSoundNames().contains(soundToStop) ? SoundType.valueOf(soundToStop).getSound().orElse("") : soundToStop);
-                }
-
-            soundsToStop.put(key, sounds);
-        }
+    private static void stopOnExit(@NotNull Player player, @Nullable Set<String> sounds, long delay) {
+        if (sounds != null) SoundStopper.addStopOnExit(player, sounds, delay);
     }
 
     @EventHandler(priority = EventPriority.HIGH)
@@ -184,6 +350,9 @@ public final class OnPlayerMove implements Listener {
         if (from.getBlockX() != to.getBlockX() || from.getBlockY() != to.getBlockY() || from.getBlockZ() != to.getBlockZ()) {
             Player player = event.getPlayer();
 
+            // The join queue evaluates the regions and biome of the player where they are on their turn.
+            if (JoinQueue.isPending(player)) return;
+
             // Calling region events.
             if (!event.isCancelled())
                 callRegionEnterLeaveEvents(event, player, from, to);
@@ -191,4 +360,27 @@ public final class OnPlayerMove implements Listener {
             checkBiomeEnterLeaveSounds(event, player, from, to, true);
         }
     }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        // Respawning does not call teleport event, so the regions the player is in must be updated here.
+        Player player = event.getPlayer();
+        if (JoinQueue.isPending(player)) return;
+        callRegionEnterLeaveEvents(null, player, player.getLocation(), event.getRespawnLocation());
+    }
+
+    /**
+     * The sounds of a biome in a world, compiled from biomes.yml.
+     */
+    private record BiomeSounds(@Nullable PlayableRichSound enter, @Nullable PlayableRichSound leave,
+                               @Nullable PlayableRichSound loop, long loopDelay, long loopPeriod,
+                               boolean preventEnterSound, @Nullable Set<String> enterStopSounds, long enterStopDelay,
+                               @Nullable Set<String> loopStopSounds, long loopStopDelay) {
+    }
+
+    /**
+     * A biome sampled from the cell of 4x4x4 blocks at these cell coordinates.
+     */
+    private record BiomeCell(@NotNull UUID world, int x, int y, int z, @NotNull Biome biome) {
+    }
 }
@@ -19,10 +19,10 @@
 package com.epicnicity322.playmoresounds.bukkit.listeners;
 
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
-import com.epicnicity322.playmoresounds.bukkit.region.RegionManager;
 import com.epicnicity322.playmoresounds.bukkit.region.SoundRegion;
 import com.epicnicity322.playmoresounds.bukkit.region.events.RegionLeaveEvent;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
+import com.epicnicity322.playmoresounds.bukkit.sound.SoundManager;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
@@ -49,13 +49,17 @@ public final class OnPlayerQuit implements Listener {
         var player = event.getPlayer();
         var location = player.getLocation();
 
-        // Calling region leave event.
-        for (SoundRegion region : RegionManager.getRegions()) {
-            if (region.isInside(location)) {
+        // Calling region leave event, unless the player quit before the join queue evaluated their regions.
+        if (!JoinQueue.remove(player)) {
+            for (SoundRegion region : OnPlayerMove.removeRegionMembership(player)) {
                 Bukkit.getPluginManager().callEvent(new RegionLeaveEvent(region, player, location, location));
             }
         }
 
+        OnPlayerMove.removeBiomeCell(player);
+
         if (leaveServer != null) leaveServer.play(player);
+
+        SoundManager.unloadSoundsState(player);
     }
 }
@@ -20,8 +20,8 @@ package com.epicnicity322.playmoresounds.bukkit.listeners;
 
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
-import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -57,10 +57,13 @@ public final class OnPlayerTeleport implements Listener {
         var from = event.getFrom();
         var to = event.getTo();
 
-        if (!event.isCancelled())
-            OnPlayerMove.callRegionEnterLeaveEvents(event, player, from, to);
+        // The join queue evaluates the regions and biome of the player where they are on their turn.
+        if (!JoinQueue.isPending(player)) {
+            if (!event.isCancelled())
+                OnPlayerMove.callRegionEnterLeaveEvents(event, player, from, to);
 
-        OnPlayerMove.checkBiomeEnterLeaveSounds(event, player, from, to, true);
+            OnPlayerMove.checkBiomeEnterLeaveSounds(event, player, from, to, true);
+        }
 
         if (event.getCause() != PlayerTeleportEvent.TeleportCause.COMMAND) return;
 
@@ -68,15 +71,15 @@ public final class OnPlayerTeleport implements Listener {
         boolean playWorldChange = worldChange != null && !from.getWorld().equals(to.getWorld()) && (!event.isCancelled() || !worldChange.isCancellable());
 
         if (playTeleport || playWorldChange)
-            Bukkit.getScheduler().runTask(main, () -> {
+            TaskScheduler.runFor(main, player, () -> {
                 if (playWorldChange) {
                     worldChange.play(player);
 
-                    if (worldChange.getSection().getBoolean("Prevent Teleport Sound").orElse(false)) return;
+                    if (worldChange.getCompiled().preventsTeleportSound()) return;
                 }
 
                 if (playTeleport)
                     teleport.play(player);
-            });
+            }, 0);
     }
 }
@@ -28,6 +28,9 @@ import org.bukkit.event.HandlerList;
 import org.bukkit.event.player.PlayerToggleFlightEvent;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public final class OnPlayerToggleFlight extends PMSListener {
     private PlayableRichSound stopSound;
     private PlayableRichSound startSound;
@@ -41,6 +44,11 @@ public final class OnPlayerToggleFlight extends PMSListener {
         return "Stop Flying|Start Flying";
     }
 
+    @Override
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS);
+    }
+
     @Override
     public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
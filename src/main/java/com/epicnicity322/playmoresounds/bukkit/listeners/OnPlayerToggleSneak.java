@@ -35,9 +35,10 @@ public final class OnPlayerToggleSneak extends PMSListener {
 
     @EventHandler
     public void onPlayerToggleSneak(PlayerToggleSneakEvent event) {
+        var player = event.getPlayer();
         var sound = getRichSound();
 
-        if (!event.isCancelled() || !sound.isCancellable())
-            sound.play(event.getPlayer());
+        if ((!event.isCancelled() || !sound.isCancellable()) && !isCoolingDown(player))
+            sound.play(player);
     }
 }
@@ -23,11 +23,10 @@ import com.epicnicity322.playmoresounds.bukkit.region.RegionManager;
 import com.epicnicity322.playmoresounds.bukkit.region.SoundRegion;
 import com.epicnicity322.playmoresounds.bukkit.region.events.RegionEnterEvent;
 import com.epicnicity322.playmoresounds.bukkit.region.events.RegionLeaveEvent;
+import com.epicnicity322.playmoresounds.bukkit.sound.CompiledRichSound;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
-import com.epicnicity322.playmoresounds.bukkit.sound.PlayableSound;
-import com.epicnicity322.playmoresounds.bukkit.sound.SoundManager;
+import com.epicnicity322.playmoresounds.bukkit.sound.SoundStopper;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
-import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -36,12 +35,17 @@ import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class OnRegionEnterLeave extends PMSListener {
-    private @Nullable HashMap<String, BukkitRunnable> loopingRegions;
+    /**
+     * The loops of region sounds, by player and region. Region events of different players are called by different
+     * threads on Folia.
+     */
+    private final @NotNull ConcurrentHashMap<UUID, ConcurrentHashMap<UUID, BukkitRunnable>> loopingRegions = new ConcurrentHashMap<>();
     private @Nullable PlayableRichSound regionEnterSound;
     private @Nullable PlayableRichSound regionLeaveSound;
 
@@ -54,6 +58,11 @@ public final class OnRegionEnterLeave extends PMSListener {
         return "Region Enter|Region Leave";
     }
 
+    @Override
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS);
+    }
+
     @Override
     public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
@@ -79,28 +88,22 @@ public final class OnRegionEnterLeave extends PMSListener {
         PlayableRichSound loopSound = region.getLoopSound();
 
         if (loopSound != null && (!event.isCancelled() || !loopSound.isCancellable())) {
-            ConfigurationSection loopSection = loopSound.getSection();
-            long delay = loopSection.getNumber("Delay").orElse(0).longValue();
-            long period = loopSection.getNumber("Period").orElse(0).longValue();
-            String loopKey = player.getUniqueId() + ";" + regionId;
+            CompiledRichSound loop = loopSound.getCompiled();
+            long delay = loop.getLoopDelay();
+            long period = loop.getLoopPeriod();
+            UUID playerId = player.getUniqueId();
 
-            if (loopingRegions == null) loopingRegions = new HashMap<>();
-
-            BukkitRunnable previousRunnable = loopingRegions.put(loopKey, loopSound.playInLoop(player, player::getLocation,
+            BukkitRunnable previousRunnable = loopingRegions.computeIfAbsent(playerId, k -> new ConcurrentHashMap<>(4)).put(regionId, loopSound.playInLoop(player, player::getLocation,
                     delay, period, () -> {
-                        for (var currentRegion : RegionManager.getRegions()) {
-                            if (currentRegion.getId().equals(regionId)) {
-                                // Break only if sound has changed or if player is no longer inside region.
-                                return !currentRegion.isInside(player.getLocation()) || !loopSound.equals(currentRegion.getLoopSound());
-                            }
-                        }
-
-                        // Break if region is not found on the loop.
-                        return true;
+                        if (!OnPlayerMove.isInsideRegion(playerId, regionId)) return true;
+                        SoundRegion currentRegion = RegionManager.getRegion(regionId);
+
+                        // Break if region was deleted or if sound has changed.
+                        return currentRegion == null || !loopSound.equals(currentRegion.getLoopSound());
                     }));
 
             if (previousRunnable != null && !previousRunnable.isCancelled()) previousRunnable.cancel();
-            if (loopSection.getBoolean("Prevent Default Sound").orElse(false)) playDefaultSound = false;
+            if (loop.preventsDefaultSound()) playDefaultSound = false;
         }
 
         // Playing enter sound
@@ -108,7 +111,7 @@ public final class OnRegionEnterLeave extends PMSListener {
 
         if (enterSound != null && (!event.isCancelled() || !enterSound.isCancellable())) {
             enterSound.play(player);
-            if (enterSound.getSection().getBoolean("Prevent Default Sound").orElse(false)) return;
+            if (enterSound.getCompiled().preventsDefaultSound()) return;
         }
 
         // Playing default enter sound in sounds.yml
@@ -126,8 +129,13 @@ public final class OnRegionEnterLeave extends PMSListener {
         // Must cancel the BukkitRunnable in case the player left the region or quit the server.
         // If the player is online and the event is cancelled, it means the player didn't actually leave the region through move event.
         if (!online || !event.isCancelled()) {
-            String loopKey = player.getUniqueId() + ";" + region.getId();
-            BukkitRunnable loopingRunnable = loopingRegions == null ? null : loopingRegions.remove(loopKey);
+            BukkitRunnable loopingRunnable = null;
+            ConcurrentHashMap<UUID, BukkitRunnable> playerLoops = loopingRegions.get(player.getUniqueId());
+
+            if (playerLoops != null) {
+                loopingRunnable = playerLoops.remove(region.getId());
+                if (playerLoops.isEmpty()) loopingRegions.remove(player.getUniqueId(), playerLoops);
+            }
 
             if (loopingRunnable != null && !loopingRunnable.isCancelled()) loopingRunnable.cancel();
 
@@ -143,7 +151,7 @@ public final class OnRegionEnterLeave extends PMSListener {
 
         if (leaveSound != null && (!event.isCancelled() || !leaveSound.isCancellable())) {
             leaveSound.play(player);
-            if (leaveSound.getSection().getBoolean("Prevent Default Sound").orElse(false)) return;
+            if (leaveSound.getCompiled().preventsDefaultSound()) return;
         }
 
         // Playing default leave sound in sounds.yml
@@ -155,15 +163,11 @@ public final class OnRegionEnterLeave extends PMSListener {
     private void stopOnExit(@NotNull Player player, @Nullable PlayableRichSound playingSound) {
         if (playingSound == null) return;
 
-        if (playingSound.getSection().getBoolean("Stop On Exit.Enabled").orElse(true)) {
-            // SoundManager#stopSounds accepts a collection with the sound names to stop.
-            HashSet<String> toStop = new HashSet<>(playingSound.getChildSounds().size());
-
-            for (PlayableSound sound : playingSound.getChildSounds()) {
-                toStop.add(sound.getSound());
-            }
+        CompiledRichSound compiled = playingSound.getCompiled();
 
-            SoundManager.stopSounds(player, toStop, playingSound.getSection().getNumber("Stop On Exit.Delay").orElse(0).longValue());
+        if (compiled.stopsOnExit()) {
+            // Only the sounds that were played to the player are stopped.
+            SoundStopper.stopStarted(player, compiled.getSoundKeys(), compiled.getStopOnExitDelay());
         }
     }
 }
\ No newline at end of file
@@ -29,6 +29,9 @@ import org.bukkit.event.weather.WeatherChangeEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public final class OnWeatherChange extends PMSListener {
     private @Nullable PlayableRichSound stopSound;
     private @Nullable PlayableRichSound startSound;
@@ -42,6 +45,11 @@ public final class OnWeatherChange extends PMSListener {
         return "Weather Rain|Weather Rain End";
     }
 
+    @Override
+    public @NotNull Set<Configurations> getConfigurations() {
+        return EnumSet.of(Configurations.SOUNDS);
+    }
+
     @Override
     public void load() {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
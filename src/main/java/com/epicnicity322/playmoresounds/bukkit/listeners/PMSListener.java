@@ -21,10 +21,12 @@ package com.epicnicity322.playmoresounds.bukkit.listeners;
 import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
+import com.epicnicity322.playmoresounds.bukkit.sound.VoiceBudget;
 import com.epicnicity322.playmoresounds.bukkit.util.ListenerRegister;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.jetbrains.annotations.Contract;
@@ -33,7 +35,11 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * A class that automatically registers the listener in case a sound with name {@link #getName()} is enabled in sounds.yml.
@@ -44,13 +50,45 @@ import java.util.Optional;
 @ThreadSafe
 public abstract class PMSListener implements Listener {
     protected final @NotNull PlayMoreSounds plugin;
-    private @Nullable PlayableRichSound richSound;
-    private boolean loaded = false;
+    /**
+     * Published as a whole when loaded, so handlers of async events never see a sound that is partially loaded.
+     */
+    private volatile @Nullable PlayableRichSound richSound;
+    private volatile boolean loaded = false;
+    private volatile @Nullable TriggerCooldown cooldown;
 
     public PMSListener(@NotNull PlayMoreSounds plugin) {
         this.plugin = plugin;
     }
 
+    private static boolean overridesLoad(@NotNull Class<?> listenerClass) {
+        try {
+            return listenerClass.getMethod("load").getDeclaringClass() != PMSListener.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Compiles the enabled sounds of a configuration whose root sections are item criteria, like "EndsWith[SWORD]",
+     * keeping the order they are in the configuration.
+     *
+     * @param criteria The configuration with the criteria.
+     * @return The criteria that have a valid sound.
+     */
+    static @NotNull CriterionSound[] compileCriteria(@NotNull ConfigurationSection criteria) {
+        var compiled = new ArrayList<CriterionSound>();
+
+        for (Map.Entry<String, Object> node : criteria.getNodes().entrySet()) {
+            if (node.getValue() instanceof ConfigurationSection section && section.contains("Sounds")) {
+                PlayableRichSound sound = getRichSound(section);
+                if (sound != null) compiled.add(new CriterionSound(node.getKey(), sound));
+            }
+        }
+
+        return compiled.toArray(new CriterionSound[0]);
+    }
+
     /**
      * Gets the {@link PlayableRichSound} in the section.
      * <p>
@@ -76,7 +114,7 @@ public abstract class PMSListener implements Listener {
 
     public abstract @NotNull String getName();
 
-    public final synchronized boolean isLoaded() {
+    public final boolean isLoaded() {
         return loaded;
     }
 
@@ -84,7 +122,7 @@ public abstract class PMSListener implements Listener {
         this.loaded = loaded;
     }
 
-    public final synchronized @Nullable PlayableRichSound getRichSound() {
+    public final @Nullable PlayableRichSound getRichSound() {
         return richSound;
     }
 
@@ -92,6 +130,42 @@ public abstract class PMSListener implements Listener {
         this.richSound = richSound;
     }
 
+    /**
+     * Reads the cooldown set in the "Cooldown" section of the sound, replacing the previous cooldown. The cooldown is
+     * read even if the sound is disabled, so listeners with criteria sounds can use it.
+     *
+     * @param section The section of the sound of this listener in sounds.yml.
+     * @see #isCoolingDown(Entity)
+     */
+    protected final void loadCooldown(@Nullable ConfigurationSection section) {
+        cooldown = TriggerCooldown.of(section);
+    }
+
+    /**
+     * Registers a trigger of this listener by the entity. Listeners should call this only once they know a sound will
+     * play, so cancelled or unmatched triggers do not start the cooldown, and not play if the entity is cooling down.
+     *
+     * @param entity The entity that triggered this listener.
+     * @return Whether the entity triggered this listener inside the cooldown set in sounds.yml.
+     */
+    protected final boolean isCoolingDown(@NotNull Entity entity) {
+        TriggerCooldown cooldown = this.cooldown;
+        return cooldown != null && !cooldown.trigger(entity.getEntityId(), VoiceBudget.getTick());
+    }
+
+    /**
+     * The configurations {@link #load()} reads. When PlayMoreSounds is reloaded, the listener is only loaded again if
+     * any of these configurations changed.
+     * <p>
+     * If {@link #load()} is inherited, this must be inherited as well, otherwise the listener is loaded again on every
+     * reload.
+     *
+     * @return The configurations this listener depends on, or null if it should always be loaded again.
+     */
+    public @Nullable Set<Configurations> getConfigurations() {
+        return overridesLoad(getClass()) ? null : EnumSet.of(Configurations.SOUNDS);
+    }
+
     /**
      * Checks if a sound with name {@link #getName()} is enabled in sounds.yml configuration. If so, then the listener
      * is registered in case it was not registered before. The listener is unregistered if the sound is disabled as well.
@@ -108,7 +182,9 @@ public abstract class PMSListener implements Listener {
         var sounds = Configurations.SOUNDS.getConfigurationHolder().getConfiguration();
 
         synchronized (this) {
-            richSound = getRichSound(sounds.getConfigurationSection(getName()));
+            ConfigurationSection section = sounds.getConfigurationSection(getName());
+            richSound = getRichSound(section);
+            cooldown = TriggerCooldown.of(section);
 
             if (richSound == null) {
                 if (loaded) {
@@ -123,4 +199,13 @@ public abstract class PMSListener implements Listener {
             }
         }
     }
+
+    /**
+     * A sound of an item criterion in items clicked.yml, items held.yml or items swung.yml.
+     *
+     * @param criterion The criterion the item material must match.
+     * @param sound     The sound to play when the material matches.
+     */
+    record CriterionSound(@NotNull String criterion, @NotNull PlayableRichSound sound) {
+    }
 }
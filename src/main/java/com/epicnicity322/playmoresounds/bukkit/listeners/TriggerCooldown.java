@@ -0,0 +1,149 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.listeners;
+
+import com.epicnicity322.playmoresounds.bukkit.sound.VoiceBudget;
+import com.epicnicity322.yamlhandler.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * The cooldown of a trigger, set in the "Cooldown" section of its sound in sounds.yml. Triggers by the same entity
+ * inside the cooldown are dropped instead of playing their sound. In {@link Mode#MERGE}, dropped triggers restart
+ * the cooldown, so a burst of triggers plays only once.
+ * <p>
+ * The cooldown is counted in server ticks, so it lasts as many ticks even when the server is lagging. The tick of the
+ * last trigger is kept by entity id in an open addressing table of primitives, so checking a trigger does not
+ * allocate. Entries older than the cooldown are the same as absent and are purged when the table is full.
+ */
+final class TriggerCooldown {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int MIN_CAPACITY = 64;
+    private final long window;
+    private final boolean merge;
+    private int[] ids = new int[MIN_CAPACITY];
+    private long[] times = new long[MIN_CAPACITY];
+    private int size = 0;
+
+    private TriggerCooldown(long ticks, @NotNull Mode mode) {
+        this.window = ticks;
+        this.merge = mode == Mode.MERGE;
+        Arrays.fill(ids, EMPTY);
+    }
+
+    /**
+     * Reads the cooldown of the sound section.
+     *
+     * @param section The section of the sound in sounds.yml.
+     * @return The cooldown, or null if the sound has no cooldown.
+     */
+    static @Nullable TriggerCooldown of(@Nullable ConfigurationSection section) {
+        if (section == null) return null;
+
+        long ticks = section.getNumber("Cooldown.Ticks").orElse(0).longValue();
+        if (ticks <= 0) return null;
+
+        Mode mode;
+        try {
+            mode = Mode.valueOf(section.getString("Cooldown.Mode").orElse("DROP").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            mode = Mode.DROP;
+        }
+
+        return new TriggerCooldown(ticks, mode);
+    }
+
+    private static int slot(int id, int mask) {
+        // Entity ids are sequential, spreading them so neighbours don't cluster.
+        int hash = id * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+
+    /**
+     * Registers a trigger by the entity, if it's not in the cooldown.
+     *
+     * @param id  The entity id of the entity that triggered.
+     * @param now The current server tick, {@link VoiceBudget#getTick()}.
+     * @return Whether the trigger should play, false if it's inside the cooldown of the last trigger.
+     */
+    synchronized boolean trigger(int id, long now) {
+        int mask = ids.length - 1;
+        int i = slot(id, mask);
+
+        for (int current; (current = ids[i]) != EMPTY; i = i + 1 & mask) {
+            if (current != id) continue;
+
+            if (now - times[i] < window) {
+                if (merge) times[i] = now;
+                return false;
+            }
+
+            times[i] = now;
+            return true;
+        }
+
+        ids[i] = id;
+        times[i] = now;
+        if (++size > ids.length * 3 / 4) rebuild(now);
+        return true;
+    }
+
+    /**
+     * Moves the entries still inside the cooldown to a new table, growing it if most entries are still inside.
+     */
+    private void rebuild(long now) {
+        int[] oldIds = ids;
+        long[] oldTimes = times;
+        int live = 0;
+
+        for (int i = 0; i < oldIds.length; ++i)
+            if (oldIds[i] != EMPTY && now - oldTimes[i] < window) ++live;
+
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(live, 1) * 4));
+        int mask = capacity - 1;
+        ids = new int[capacity];
+        times = new long[capacity];
+        Arrays.fill(ids, EMPTY);
+        size = live;
+
+        for (int i = 0; i < oldIds.length; ++i) {
+            if (oldIds[i] == EMPTY || now - oldTimes[i] >= window) continue;
+
+            int slot = slot(oldIds[i], mask);
+            while (ids[slot] != EMPTY) slot = slot + 1 & mask;
+            ids[slot] = oldIds[i];
+            times[slot] = oldTimes[i];
+        }
+    }
+
+    enum Mode {
+        /**
+         * Triggers inside the cooldown are dropped, the sound plays again once the cooldown of the last played sound
+         * is over.
+         */
+        DROP,
+        /**
+         * Triggers inside the cooldown are merged into the sound that played and restart the cooldown, the sound only
+         * plays again after the entity stops triggering for the whole cooldown.
+         */
+        MERGE
+    }
+}
@@ -22,6 +22,8 @@ import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
 import com.epicnicity322.epicpluginlib.core.util.StringUtils;
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableRichSound;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
+import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
 import com.epicnicity322.playmoresounds.core.util.PMSHelper;
 import com.epicnicity322.yamlhandler.Configuration;
@@ -29,16 +31,46 @@ import com.epicnicity322.yamlhandler.ConfigurationSection;
 import com.epicnicity322.yamlhandler.YamlConfigurationLoader;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
-import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.TimeSkipEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
 
+/**
+ * Plays the sounds of world time triggers.yml when worlds reach the times of the triggers.
+ * <p>
+ * The triggers of each world are kept sorted by time, and a world is only checked when its next trigger is due,
+ * instead of every tick. If the time of the world jumped since it was last checked, like with /time set or when
+ * players sleep, the triggers that were skipped play according to "World Time Triggers.Catch Up" in config.yml.
+ */
 public final class WorldTimeListener {
-    private static @Nullable BukkitTask timeCheckerTask;
+    private static final long DAY = 24000;
+    /**
+     * The max ticks a world is left without being checked, so worlds with a frozen time or time changed by plugins
+     * are checked again soon.
+     */
+    private static final long MAX_SLEEP = 200;
+    private static final @NotNull HashMap<UUID, WorldSchedule> schedules = new HashMap<>();
+    private static boolean listenerRegistered = false;
+
+    static {
+        PlayMoreSounds.onDisable(() -> {
+            synchronized (WorldTimeListener.class) {
+                schedules.values().forEach(WorldSchedule::cancel);
+                schedules.clear();
+                listenerRegistered = false;
+            }
+        });
+    }
 
     private WorldTimeListener() {
     }
@@ -53,8 +85,8 @@ public final class WorldTimeListener {
             timeTriggersConfig = Configurations.WORLD_TIME_TRIGGERS.getConfigurationHolder().getConfiguration();
         }
 
-        // Defining and populating time triggers according to config.
-        var timeTriggers = new HashMap<TimeTrigger, PlayableRichSound>();
+        // Defining and populating time triggers according to config, sorted by time.
+        var timeTriggers = new HashMap<World, TreeMap<Long, PlayableRichSound>>();
 
         for (Map.Entry<String, Object> worldNode : timeTriggersConfig.getNodes().entrySet()) {
             if (!(worldNode.getValue() instanceof ConfigurationSection worldSection)) continue;
@@ -69,7 +101,11 @@ public final class WorldTimeListener {
                 }
 
                 try {
-                    timeTriggers.put(new TimeTrigger(world, Long.parseLong(timeNode.getKey())), new PlayableRichSound(timeSection));
+                    long time = Long.parseLong(timeNode.getKey());
+                    // Times out of a day are never reached.
+                    if (time < 0 || time >= DAY) continue;
+
+                    timeTriggers.computeIfAbsent(world, k -> new TreeMap<>()).put(time, new PlayableRichSound(timeSection));
                 } catch (NumberFormatException ignored) {
                 } catch (IllegalArgumentException soundException) {
                     // This should never happen for #getHalloweenWorldTimeTriggersConfig.
@@ -80,24 +116,40 @@ public final class WorldTimeListener {
             }
         }
 
-        if (timeTriggers.isEmpty()) return;
+        CatchUp catchUp;
+
+        try {
+            catchUp = CatchUp.valueOf(Configurations.CONFIG.getConfigurationHolder().getConfiguration().getString("World Time Triggers.Catch Up").orElse("LATEST").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            catchUp = CatchUp.LATEST;
+        }
 
-        // Assigning world time checker task.
         synchronized (WorldTimeListener.class) {
-            if (timeCheckerTask != null) {
-                if (!timeCheckerTask.isCancelled()) timeCheckerTask.cancel();
-                timeCheckerTask = null;
+            schedules.values().forEach(WorldSchedule::cancel);
+            schedules.clear();
+
+            for (Map.Entry<World, TreeMap<Long, PlayableRichSound>> worldTriggers : timeTriggers.entrySet()) {
+                var schedule = new WorldSchedule(plugin, worldTriggers.getKey(), worldTriggers.getValue(), catchUp);
+                schedules.put(worldTriggers.getKey().getUID(), schedule);
+                schedule.start();
             }
 
-            timeCheckerTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-                for (Map.Entry<TimeTrigger, PlayableRichSound> entry : timeTriggers.entrySet()) {
-                    TimeTrigger trigger = entry.getKey();
+            if (!schedules.isEmpty() && !listenerRegistered) {
+                Bukkit.getPluginManager().registerEvents(new Listener() {
+                    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+                    public void onTimeSkip(TimeSkipEvent event) {
+                        WorldSchedule schedule;
 
-                    if (trigger.time() == trigger.world().getTime()) {
-                        entry.getValue().play(trigger.world().getSpawnLocation());
+                        synchronized (WorldTimeListener.class) {
+                            schedule = schedules.get(event.getWorld().getUID());
+                        }
+
+                        // The time is only changed after the event, so the world is checked on the next tick.
+                        if (schedule != null) schedule.wake();
                     }
-                }
-            }, 0, 1);
+                }, plugin);
+                listenerRegistered = true;
+            }
         }
     }
 
@@ -131,6 +183,139 @@ public final class WorldTimeListener {
         return worldTimes;
     }
 
-    record TimeTrigger(@NotNull World world, long time) {
+    /**
+     * What to do with triggers that were skipped because the time of a world jumped.
+     */
+    private enum CatchUp {
+        /**
+         * Skipped triggers don't play.
+         */
+        NONE,
+        /**
+         * Only the last skipped trigger plays.
+         */
+        LATEST,
+        /**
+         * Every skipped trigger plays, once each.
+         */
+        ALL
+    }
+
+    /**
+     * The sorted triggers of a world, checked when the next trigger is due.
+     */
+    private static final class WorldSchedule {
+        private final @NotNull PlayMoreSounds plugin;
+        private final @NotNull World world;
+        private final long[] times;
+        private final @NotNull PlayableRichSound[] sounds;
+        private final @NotNull CatchUp catchUp;
+        /**
+         * The full time of the world when it was last checked.
+         */
+        private long lastTime;
+        /**
+         * The full time the world will have on the next check if its time goes on without jumping.
+         */
+        private long expectedTime;
+        private boolean skipped = false;
+        private boolean cancelled = false;
+        private @Nullable TaskScheduler.Task task;
+
+        private WorldSchedule(@NotNull PlayMoreSounds plugin, @NotNull World world, @NotNull TreeMap<Long, PlayableRichSound> triggers, @NotNull CatchUp catchUp) {
+            this.plugin = plugin;
+            this.world = world;
+            this.catchUp = catchUp;
+            times = new long[triggers.size()];
+            sounds = new PlayableRichSound[triggers.size()];
+
+            int i = 0;
+            for (Map.Entry<Long, PlayableRichSound> trigger : triggers.entrySet()) {
+                times[i] = trigger.getKey();
+                sounds[i++] = trigger.getValue();
+            }
+        }
+
+        private synchronized void start() {
+            lastTime = world.getFullTime();
+            sleep(ticksUntilNext(lastTime));
+        }
+
+        private synchronized void wake() {
+            if (cancelled) return;
+            if (task != null) task.cancel();
+            skipped = true;
+            task = TaskScheduler.runLater(plugin, this::check, 1);
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            if (task != null) task.cancel();
+            task = null;
+        }
+
+        private void sleep(long ticks) {
+            ticks = Math.max(1, Math.min(ticks, MAX_SLEEP));
+            expectedTime = lastTime + ticks;
+            task = TaskScheduler.runLater(plugin, this::check, ticks);
+        }
+
+        private synchronized void check() {
+            if (cancelled) return;
+
+            long now = world.getFullTime();
+
+            // Time going backwards passes no triggers.
+            if (now > lastTime) {
+                // When the time went on without jumping, the due trigger was reached, not skipped.
+                play(lastTime, now, !skipped && now == expectedTime ? CatchUp.ALL : catchUp);
+            }
+
+            lastTime = now;
+            skipped = false;
+            sleep(ticksUntilNext(now));
+        }
+
+        /**
+         * Plays the triggers passed after the time from, up to the time to.
+         */
+        private void play(long from, long to, @NotNull CatchUp policy) {
+            // Triggers more than a day behind would play more than once.
+            from = Math.max(from, to - DAY);
+
+            int latest = -1;
+
+            for (long day = Math.floorDiv(from + 1, DAY); day <= Math.floorDiv(to, DAY); ++day) {
+                for (int i = 0; i < times.length; ++i) {
+                    long time = day * DAY + times[i];
+                    if (time <= from) continue;
+                    if (time > to) break;
+
+                    if (policy == CatchUp.ALL) play(i);
+                    else latest = i;
+                }
+            }
+
+            if (policy == CatchUp.LATEST && latest != -1) play(latest);
+        }
+
+        private void play(int trigger) {
+            try {
+                sounds[trigger].play(world.getSpawnLocation());
+            } catch (Throwable t) {
+                PlayMoreSoundsCore.getErrorHandler().report(t, "World Time Trigger Exception:");
+            }
+        }
+
+        /**
+         * @return The ticks until the time of the next trigger after this full time.
+         */
+        private long ticksUntilNext(long fullTime) {
+            long dayTime = Math.floorMod(fullTime, DAY);
+            int index = Arrays.binarySearch(times, dayTime + 1);
+            if (index < 0) index = -index - 1;
+
+            return index < times.length ? times[index] - dayTime : times[0] + DAY - dayTime;
+        }
     }
 }
@@ -0,0 +1,198 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.region;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A per world spatial index of {@link SoundRegion}s, bucketed by the chunks each region's bounding box overlaps.
+ * <p>
+ * Buckets are copy-on-write arrays, so lookups can run on any thread without locking and without allocating. Writes
+ * are synchronized and only happen when regions are added, removed, resized or reloaded.
+ */
+final class RegionIndex {
+    /**
+     * Regions overlapping more chunks than this are not bucketed, they are kept in a per world array that is always
+     * tested instead. This prevents a single huge region from filling the index with thousands of buckets.
+     */
+    private static final int MAX_BUCKETED_CHUNKS = 4096;
+    private static final @NotNull SoundRegion[] EMPTY = new SoundRegion[0];
+    private final @NotNull ConcurrentHashMap<UUID, WorldIndex> worlds = new ConcurrentHashMap<>();
+    private final @NotNull ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static @NotNull SoundRegion[] with(@NotNull SoundRegion[] array, @NotNull SoundRegion region) {
+        SoundRegion[] newArray = Arrays.copyOf(array, array.length + 1);
+        newArray[array.length] = region;
+        return newArray;
+    }
+
+    private static @Nullable SoundRegion[] without(@NotNull SoundRegion[] array, @NotNull SoundRegion region) {
+        for (int i = 0; i < array.length; ++i) {
+            if (array[i] != region) continue;
+            if (array.length == 1) return null;
+
+            SoundRegion[] newArray = new SoundRegion[array.length - 1];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 1, newArray, i, array.length - i - 1);
+            return newArray;
+        }
+        return array;
+    }
+
+    /**
+     * Indexes the region with its current diagonals, replacing any region previously indexed with the same id.
+     *
+     * @param region The region to index.
+     */
+    synchronized void add(@NotNull SoundRegion region) {
+        Entry old = entries.get(region.getId());
+        if (old != null) remove(old);
+
+        Location min = region.getMinDiagonal();
+        Location max = region.getMaxDiagonal();
+        var entry = new Entry(region, min.getWorld().getUID(), min.getBlockX() >> 4, min.getBlockZ() >> 4,
+                max.getBlockX() >> 4, max.getBlockZ() >> 4);
+        WorldIndex world = worlds.computeIfAbsent(entry.world, k -> new WorldIndex());
+
+        if (entry.isLarge()) {
+            world.large = with(world.large, region);
+        } else {
+            for (int x = entry.minChunkX; x <= entry.maxChunkX; ++x)
+                for (int z = entry.minChunkZ; z <= entry.maxChunkZ; ++z) {
+                    SoundRegion[] bucket = world.chunks.get(chunkKey(x, z));
+                    world.chunks.put(chunkKey(x, z), bucket == null ? new SoundRegion[]{region} : with(bucket, region));
+                }
+        }
+
+        entries.put(region.getId(), entry);
+    }
+
+    /**
+     * Removes the region with this region's id from the index, if the indexed instance is this exact instance.
+     *
+     * @param region The region to remove.
+     */
+    synchronized void remove(@NotNull SoundRegion region) {
+        Entry entry = entries.get(region.getId());
+        if (entry != null && entry.region == region) remove(entry);
+    }
+
+    /**
+     * Re-indexes the region if its diagonals changed while it was indexed.
+     *
+     * @param region The region that was resized.
+     */
+    synchronized void update(@NotNull SoundRegion region) {
+        Entry entry = entries.get(region.getId());
+        if (entry != null && entry.region == region) add(region);
+    }
+
+    private void remove(@NotNull Entry entry) {
+        entries.remove(entry.region.getId());
+        WorldIndex world = worlds.get(entry.world);
+        if (world == null) return;
+
+        if (entry.isLarge()) {
+            SoundRegion[] large = without(world.large, entry.region);
+            world.large = large == null ? EMPTY : large;
+        } else {
+            for (int x = entry.minChunkX; x <= entry.maxChunkX; ++x)
+                for (int z = entry.minChunkZ; z <= entry.maxChunkZ; ++z) {
+                    long key = chunkKey(x, z);
+                    SoundRegion[] bucket = world.chunks.get(key);
+                    if (bucket == null) continue;
+                    bucket = without(bucket, entry.region);
+                    if (bucket == null) world.chunks.remove(key);
+                    else world.chunks.put(key, bucket);
+                }
+        }
+    }
+
+    /**
+     * Gets the indexed region with this id.
+     *
+     * @param id The id of the region.
+     * @return The region or null if no region with this id is indexed.
+     */
+    @Nullable SoundRegion get(@NotNull UUID id) {
+        Entry entry = entries.get(id);
+        return entry == null ? null : entry.region;
+    }
+
+    /**
+     * Adds to the collection every region whose bounding box overlaps the chunk of this location. Regions already in
+     * the collection are not added again, so this can be called more than once to merge chunks.
+     *
+     * @param location   The location to look up.
+     * @param candidates The collection to add the regions to.
+     */
+    void collectCandidates(@NotNull Location location, @NotNull Collection<SoundRegion> candidates) {
+        WorldIndex world = worlds.get(location.getWorld().getUID());
+        if (world == null) return;
+        boolean merge = !candidates.isEmpty();
+
+        SoundRegion[] bucket = world.chunks.get(chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+        if (bucket != null) for (SoundRegion region : bucket) if (!merge || !candidates.contains(region)) candidates.add(region);
+        for (SoundRegion region : world.large) if (!merge || !candidates.contains(region)) candidates.add(region);
+    }
+
+    /**
+     * Gets the regions that are in this location.
+     *
+     * @param location The location to look up.
+     * @return A new list with the regions whose area contains this location.
+     */
+    @NotNull ArrayList<SoundRegion> getRegionsAt(@NotNull Location location) {
+        var regions = new ArrayList<SoundRegion>(4);
+        WorldIndex world = worlds.get(location.getWorld().getUID());
+        if (world == null) return regions;
+
+        SoundRegion[] bucket = world.chunks.get(chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+        if (bucket != null) for (SoundRegion region : bucket) if (region.isInside(location)) regions.add(region);
+        for (SoundRegion region : world.large) if (region.isInside(location)) regions.add(region);
+        return regions;
+    }
+
+    private static final class WorldIndex {
+        private final @NotNull ConcurrentHashMap<Long, SoundRegion[]> chunks = new ConcurrentHashMap<>();
+        private volatile @NotNull SoundRegion[] large = EMPTY;
+    }
+
+    /**
+     * The chunk bounds a region was indexed with, so it can be removed even after its diagonals change.
+     */
+    private record Entry(@NotNull SoundRegion region, @NotNull UUID world, int minChunkX, int minChunkZ, int maxChunkX,
+                         int maxChunkZ) {
+        boolean isLarge() {
+            return (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1) > MAX_BUCKETED_CHUNKS;
+        }
+    }
+}
@@ -20,7 +20,9 @@ package com.epicnicity322.playmoresounds.bukkit.region;
 
 import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
 import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
+import com.epicnicity322.playmoresounds.core.config.ConfigurationChanges;
 import com.epicnicity322.playmoresounds.core.config.Configurations;
 import com.epicnicity322.yamlhandler.Configuration;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
@@ -31,7 +33,6 @@ import org.bukkit.Material;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -58,7 +59,11 @@ public final class RegionManager {
     private static final @NotNull Set<SoundRegion> unmodifiableRegions = Collections.unmodifiableSet(regions);
     private static final @NotNull Runnable wandUpdater;
     private static ItemStack wand;
-    private static @Nullable BukkitRunnable autoSaver;
+    private static @Nullable TaskScheduler.Task autoSaver;
+    /**
+     * Chunk index of {@link #regions}, replaced as a whole on {@link #saveAndUpdate()}.
+     */
+    private static volatile @NotNull RegionIndex index = new RegionIndex();
 
     static {
         wandUpdater = () -> {
@@ -109,7 +114,36 @@ public final class RegionManager {
      * @return The regions in this location.
      */
     public static @NotNull Set<SoundRegion> getRegionsAt(@NotNull Location location) {
-        return regions.stream().filter(region -> region.isInside(location)).collect(Collectors.toSet());
+        return new HashSet<>(index.getRegionsAt(location));
+    }
+
+    /**
+     * Gets the regions whose area overlaps the chunks of the specified locations. This is a cheap lookup for when a
+     * player moves from one location to another, the regions returned are not guaranteed to contain either location, so
+     * {@link SoundRegion#isInside(Location)} must still be tested.
+     *
+     * @param from The first location.
+     * @param to   The second location.
+     * @return A new list with the regions that may contain from or to.
+     */
+    public static @NotNull List<SoundRegion> getRegionsNear(@NotNull Location from, @NotNull Location to) {
+        var candidates = new ArrayList<SoundRegion>(4);
+        RegionIndex index = RegionManager.index;
+
+        index.collectCandidates(from, candidates);
+        if (from.getWorld() != to.getWorld() || from.getBlockX() >> 4 != to.getBlockX() >> 4 || from.getBlockZ() >> 4 != to.getBlockZ() >> 4)
+            index.collectCandidates(to, candidates);
+        return candidates;
+    }
+
+    /**
+     * Gets a region managed by PlayMoreSounds by its id.
+     *
+     * @param id The id of the region.
+     * @return The region or null if there's no region with this id.
+     */
+    public static @Nullable SoundRegion getRegion(@NotNull UUID id) {
+        return index.get(id);
     }
 
     /**
@@ -140,6 +174,7 @@ public final class RegionManager {
     public static void add(@NotNull SoundRegion region) {
         region.autoSave = true;
         regions.add(region);
+        index.add(region);
         regionsToRemove.remove(region.getId().toString());
         regionsToSave.add(region.getId().toString());
         loadAutoSave();
@@ -154,6 +189,7 @@ public final class RegionManager {
     public static void remove(@NotNull SoundRegion region) {
         region.autoSave = false;
         regions.remove(region);
+        index.remove(region);
         regionsToSave.remove(region.getId().toString());
         regionsToRemove.add(region.getId().toString());
         loadAutoSave();
@@ -226,6 +262,36 @@ public final class RegionManager {
         }
 
         regionsToSave.clear();
+
+        var newIndex = new RegionIndex();
+        regions.forEach(newIndex::add);
+        index = newIndex;
+
+        // Remembering the state of the folder after the writes above, so they are not reported as changes.
+        ConfigurationChanges.pollFolder(regionsFolder);
+    }
+
+    /**
+     * Runs {@link #saveAndUpdate()} only if there are regions scheduled to be saved or removed, or if any file in the
+     * regions folder changed since regions were last updated.
+     *
+     * @return Whether regions were saved and updated.
+     */
+    public static boolean saveAndUpdateIfChanged() {
+        if (regionsToSave.isEmpty() && regionsToRemove.isEmpty() && !ConfigurationChanges.pollFolder(regionsFolder))
+            return false;
+
+        saveAndUpdate();
+        return true;
+    }
+
+    /**
+     * Updates the chunks this region is indexed in, in case its diagonals changed.
+     *
+     * @param region The region that was resized.
+     */
+    static void reindex(@NotNull SoundRegion region) {
+        index.update(region);
     }
 
     private static void save(@NotNull SoundRegion region) throws IOException {
@@ -275,23 +341,16 @@ public final class RegionManager {
 
         if (plugin == null) return;
 
-        autoSaver = new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    if (regionsToSave.isEmpty() && regionsToRemove.isEmpty()) {
-                        cancel();
-                        return;
-                    }
-                    PlayMoreSounds.getConsoleLogger().log("Saving region changes.");
-                    saveAndUpdate();
-                } finally {
-                    synchronized (RegionManager.class) {
-                        autoSaver = null;
-                    }
+        autoSaver = TaskScheduler.runAsyncLater(plugin, () -> {
+            try {
+                if (regionsToSave.isEmpty() && regionsToRemove.isEmpty()) return;
+                PlayMoreSounds.getConsoleLogger().log("Saving region changes.");
+                saveAndUpdate();
+            } finally {
+                synchronized (RegionManager.class) {
+                    autoSaver = null;
                 }
             }
-        };
-        autoSaver.runTaskLaterAsynchronously(plugin, 12000);
+        }, 12000);
     }
 }
@@ -235,6 +235,7 @@ public class SoundRegion {
         maxDiagonal = new Location(world, maxX, maxY, maxZ);
         minDiagonal = new Location(world, minX, minY, minZ);
         border = parseBorder();
+        if (autoSave) RegionManager.reindex(this);
         addToSave();
     }
 
@@ -269,6 +270,7 @@ public class SoundRegion {
         maxDiagonal = new Location(world, maxX, maxY, maxZ);
         minDiagonal = new Location(world, minX, minY, minZ);
         border = parseBorder();
+        if (autoSave) RegionManager.reindex(this);
         addToSave();
     }
 
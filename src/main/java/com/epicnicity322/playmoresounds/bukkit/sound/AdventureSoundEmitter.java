@@ -0,0 +1,57 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.sound;
+
+import com.epicnicity322.playmoresounds.core.sound.SoundCategory;
+import net.kyori.adventure.key.InvalidKeyException;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.sound.Sound;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Prepares sounds as immutable Adventure sounds, so Paper builds the sound once and only the position changes between
+ * listeners. This class is only loaded on Paper versions where players are adventure audiences.
+ */
+final class AdventureSoundEmitter extends SoundEmitter {
+    @Override
+    @NotNull Emission prepare(@NotNull String key, @NotNull SoundCategory category, float volume, float pitch) {
+        Key soundKey;
+
+        try {
+            soundKey = Key.key(key);
+        } catch (InvalidKeyException e) {
+            // Letting the server decide what to do with keys adventure does not accept.
+            return bukkitEmission(key, category, volume, pitch);
+        }
+
+        // The constants of SoundCategory have the same names as adventure sources.
+        Sound sound = Sound.sound(soundKey, Sound.Source.valueOf(category.name()), volume, pitch);
+
+        return new Emission(key, category, volume, pitch) {
+            @Override
+            void emit(@NotNull Player listener, @Nullable Location location) {
+                if (location == null) listener.playSound(sound);
+                else listener.playSound(sound, location.getX(), location.getY(), location.getZ());
+            }
+        };
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.sound;
+
+import com.epicnicity322.playmoresounds.core.sound.SoundOptions;
+import com.epicnicity322.yamlhandler.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable snapshot of a {@link PlayableRichSound}. The properties of the child sounds are flattened into arrays
+ * and the keys of the rich sound's section that listeners look for are read once, so playing the sound does not go
+ * through child sounds, their options or configuration sections.
+ * <p>
+ * Snapshots are made by {@link PlayableRichSound#getCompiled()}, which makes a new one after any property of the rich
+ * sound, its child sounds or their options changes.
+ */
+public final class CompiledRichSound {
+    private static final @NotNull String[] NO_STRINGS = new String[0];
+    final int modificationCount;
+    final boolean enabled;
+    final boolean cancellable;
+    final @NotNull PlayableSound[] sounds;
+    final @NotNull String[] keys;
+    /**
+     * The child sounds prepared by {@link SoundEmitter}, so they are only built once for all listeners.
+     */
+    final @NotNull SoundEmitter.Emission[] emissions;
+    final long[] delays;
+    final double[] radii;
+    final boolean[] ignoresDisabled;
+    final @NotNull String[] permissionsRequired;
+    final @NotNull String[] permissionsToListen;
+    /**
+     * The indexes of the child sounds sorted by delay, keeping the order of sounds with the same delay.
+     */
+    final int[] byDelay;
+    private final @NotNull Set<String> soundKeys;
+    private final long loopDelay;
+    private final long loopPeriod;
+    private final boolean preventDefaultSound;
+    private final boolean preventOtherDefaultSound;
+    private final boolean preventOtherCriteria;
+    private final boolean preventDeathSounds;
+    private final boolean preventTeleportSound;
+    private final boolean stopOnExit;
+    private final long stopOnExitDelay;
+
+    CompiledRichSound(@NotNull PlayableRichSound richSound, int modificationCount) {
+        this.modificationCount = modificationCount;
+        enabled = richSound.isEnabled();
+        cancellable = richSound.isCancellable();
+        sounds = richSound.getChildSounds().toArray(new PlayableSound[0]);
+
+        int size = sounds.length;
+        keys = new String[size];
+        emissions = new SoundEmitter.Emission[size];
+        delays = new long[size];
+        radii = new double[size];
+        ignoresDisabled = new boolean[size];
+        permissionsRequired = size == 0 ? NO_STRINGS : new String[size];
+        permissionsToListen = size == 0 ? NO_STRINGS : new String[size];
+        var soundKeys = new HashSet<String>(size);
+
+        for (int i = 0; i < size; ++i) {
+            PlayableSound sound = sounds[i];
+            SoundOptions options = sound.getOptions();
+
+            keys[i] = sound.getSound().intern();
+            emissions[i] = SoundEmitter.get().prepare(keys[i], sound.getCategory(), sound.getVolume(), sound.getPitch());
+            delays[i] = sound.getDelay();
+            radii[i] = options.getRadius();
+            ignoresDisabled[i] = options.ignoresDisabled();
+            permissionsRequired[i] = intern(options.getPermissionRequired());
+            permissionsToListen[i] = intern(options.getPermissionToListen());
+            soundKeys.add(keys[i]);
+        }
+
+        this.soundKeys = Collections.unmodifiableSet(soundKeys);
+        byDelay = IntStream.range(0, size).boxed().sorted(Comparator.comparingLong(i -> delays[i])).mapToInt(Integer::intValue).toArray();
+
+        ConfigurationSection section = richSound.getSection();
+
+        if (section == null) {
+            loopDelay = 0;
+            loopPeriod = 0;
+            preventDefaultSound = false;
+            preventOtherDefaultSound = false;
+            preventOtherCriteria = false;
+            preventDeathSounds = false;
+            preventTeleportSound = false;
+            stopOnExit = true;
+            stopOnExitDelay = 0;
+        } else {
+            loopDelay = section.getNumber("Delay").orElse(0).longValue();
+            loopPeriod = section.getNumber("Period").orElse(0).longValue();
+            preventDefaultSound = section.getBoolean("Prevent Default Sound").orElse(false);
+            preventOtherDefaultSound = section.getBoolean("Prevent Other Sounds.Default Sound").orElse(false);
+            preventOtherCriteria = section.getBoolean("Prevent Other Sounds.Other Criteria").orElse(false);
+            preventDeathSounds = section.getBoolean("Prevent Death Sounds").orElse(false);
+            preventTeleportSound = section.getBoolean("Prevent Teleport Sound").orElse(false);
+            stopOnExit = section.getBoolean("Stop On Exit.Enabled").orElse(true);
+            stopOnExitDelay = section.getNumber("Stop On Exit.Delay").orElse(0).longValue();
+        }
+    }
+
+    private static @Nullable String intern(@Nullable String permission) {
+        return permission == null ? null : permission.intern();
+    }
+
+    /**
+     * @return Whether the rich sound was enabled and had child sounds when this snapshot was made.
+     */
+    public boolean isPlayable() {
+        return enabled && sounds.length != 0;
+    }
+
+    public boolean isCancellable() {
+        return cancellable;
+    }
+
+    /**
+     * @return The keys of the child sounds, the names used to stop them.
+     */
+    public @NotNull Set<String> getSoundKeys() {
+        return soundKeys;
+    }
+
+    /**
+     * @return The 'Delay' key of the section, the delay before the first play of loop sounds.
+     */
+    public long getLoopDelay() {
+        return loopDelay;
+    }
+
+    /**
+     * @return The 'Period' key of the section, the time between each play of loop sounds.
+     */
+    public long getLoopPeriod() {
+        return loopPeriod;
+    }
+
+    /**
+     * @return The 'Prevent Default Sound' key of the section.
+     */
+    public boolean preventsDefaultSound() {
+        return preventDefaultSound;
+    }
+
+    /**
+     * @return The 'Prevent Other Sounds.Default Sound' key of the section.
+     */
+    public boolean preventsOtherDefaultSound() {
+        return preventOtherDefaultSound;
+    }
+
+    /**
+     * @return The 'Prevent Other Sounds.Other Criteria' key of the section.
+     */
+    public boolean preventsOtherCriteria() {
+        return preventOtherCriteria;
+    }
+
+    /**
+     * @return The 'Prevent Death Sounds' key of the section.
+     */
+    public boolean preventsDeathSounds() {
+        return preventDeathSounds;
+    }
+
+    /**
+     * @return The 'Prevent Teleport Sound' key of the section.
+     */
+    public boolean preventsTeleportSound() {
+        return preventTeleportSound;
+    }
+
+    /**
+     * @return The 'Stop On Exit.Enabled' key of the section, true by default.
+     */
+    public boolean stopsOnExit() {
+        return stopOnExit;
+    }
+
+    /**
+     * @return The 'Stop On Exit.Delay' key of the section.
+     */
+    public long getStopOnExitDelay() {
+        return stopOnExitDelay;
+    }
+}
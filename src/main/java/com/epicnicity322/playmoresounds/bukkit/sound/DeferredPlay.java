@@ -0,0 +1,82 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.sound;
+
+import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * A play handed to the region that owns the location on Folia. Cancelling it cancels the play if it did not run yet,
+ * or the delayed sounds of the play if it did.
+ */
+final class DeferredPlay implements BukkitTask {
+    volatile @Nullable TaskScheduler.Task handoff;
+    private @Nullable Collection<BukkitTask> delayedTasks;
+    private boolean cancelled = false;
+
+    /**
+     * Sets the delayed sounds of the play once it ran, cancelling them if this was already cancelled.
+     *
+     * @param delayedTasks The tasks of the delayed sounds of the play.
+     */
+    synchronized void played(@Nullable Collection<BukkitTask> delayedTasks) {
+        this.delayedTasks = delayedTasks;
+        if (cancelled && delayedTasks != null) delayedTasks.forEach(BukkitTask::cancel);
+    }
+
+    @Override
+    public synchronized void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+
+        TaskScheduler.Task handoff = this.handoff;
+        if (handoff != null) handoff.cancel();
+        if (delayedTasks != null) delayedTasks.forEach(BukkitTask::cancel);
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return -1, deferred plays are not bukkit tasks.
+     */
+    @Override
+    public int getTaskId() {
+        return -1;
+    }
+
+    @Override
+    public @NotNull Plugin getOwner() {
+        return Objects.requireNonNull(PlayMoreSounds.getInstance());
+    }
+
+    @Override
+    public boolean isSync() {
+        return true;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.sound;
+
+import com.epicnicity322.playmoresounds.bukkit.util.PermissionCache;
+import com.epicnicity322.playmoresounds.core.sound.SoundOptions;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Called before the child sounds of a {@link PlayableRichSound} that share the same delay are played together. This
+ * event replaces {@link PlaySoundEvent} for each child sound, so listeners are found once for every distinct radius and
+ * validated once for all child sounds.
+ * <p>
+ * {@link PlaySoundEvent} is still called for each child sound instead of this one if a handler of it annotated with
+ * {@link PerChildSoundEvents} is registered, or if 'Performance.Per Child Sound Events' is enabled in config.yml.
+ *
+ * @see PlayRichSoundEvent
+ */
+public class PlayBatchSoundEvent extends Event implements Cancellable {
+    private static final @NotNull HandlerList handlers = new HandlerList();
+    private static final byte VALIDATED = 1, SOUNDS_ENABLED = 2, CAN_SEE_SOURCE = 4;
+    private final @Nullable Player sourcePlayer;
+    private final @NotNull PlayableRichSound richSound;
+    private final @NotNull List<PlayableSound> sounds;
+    private final @NotNull List<Collection<Player>> listeners;
+    /**
+     * The toggle state and visibility of listeners, so they are only looked up once for all sounds.
+     */
+    private final @NotNull HashMap<Player, Byte> listenerStates = new HashMap<>();
+    private @Nullable HashSet<Player> removedListeners;
+    @NotNull Location location;
+    private boolean cancelled;
+
+    public PlayBatchSoundEvent(@Nullable Player sourcePlayer, @NotNull Location location, @NotNull PlayableRichSound richSound,
+                               @NotNull List<PlayableSound> sounds, @NotNull List<Collection<Player>> listeners) {
+        if (sounds.size() != listeners.size())
+            throw new IllegalArgumentException("Every sound must have a collection of listeners.");
+
+        this.sourcePlayer = sourcePlayer;
+        this.location = location;
+        this.richSound = richSound;
+        this.sounds = Collections.unmodifiableList(sounds);
+        this.listeners = listeners;
+    }
+
+    public static @NotNull HandlerList getHandlerList() {
+        return handlers;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * @return The source player or null if this sound was not played by a player.
+     */
+    public @Nullable Player getSourcePlayer() {
+        return sourcePlayer;
+    }
+
+    /**
+     * The location the sounds were asked to play. Sounds that play globally ignore this location and play at each
+     * listener location.
+     *
+     * @return The source location of the sounds.
+     */
+    public final @NotNull Location getLocation() {
+        return location.clone();
+    }
+
+    /**
+     * Sets the location of the sounds, this location will be ignored by sounds that play globally.
+     *
+     * @param location The location the sounds should play.
+     * @throws IllegalArgumentException If the new location is in a different world than the previous.
+     */
+    public void setLocation(@NotNull Location location) {
+        if (!Objects.equals(this.location.getWorld(), location.getWorld()))
+            throw new IllegalArgumentException("New location world is not the same as previous location's world.");
+
+        this.location = location;
+    }
+
+    /**
+     * @return The rich sound the sounds of this batch are children of.
+     */
+    public @NotNull PlayableRichSound getRichSound() {
+        return richSound;
+    }
+
+    /**
+     * @return An unmodifiable list of the child sounds that will play.
+     */
+    public @NotNull List<PlayableSound> getSounds() {
+        return sounds;
+    }
+
+    /**
+     * The players in range to hear the child sound at this index of {@link #getSounds()}. Players in this collection
+     * may not hear the sound, because they are only validated right before the sound is played.
+     * <p>
+     * The collection is reused once the sounds are played, so it must not be kept after the event.
+     *
+     * @param index The index of the sound in {@link #getSounds()}.
+     * @return An unmodifiable collection with the players in range to hear the sound.
+     * @see #validateListener(PlayableSound, Player)
+     */
+    public @NotNull Collection<Player> getListeners(int index) {
+        return Collections.unmodifiableCollection(listeners.get(index));
+    }
+
+    /**
+     * Makes so this player does not hear any of the sounds of this batch.
+     *
+     * @param listener The player to remove.
+     */
+    public void removeListener(@NotNull Player listener) {
+        if (removedListeners == null) removedListeners = new HashSet<>();
+        removedListeners.add(listener);
+    }
+
+    @NotNull List<Collection<Player>> listeners() {
+        return listeners;
+    }
+
+    /**
+     * Validates if this player should hear the sound, the same way as {@link PlaySoundEvent#validateListener(Player)},
+     * but the sounds state of the listener and whether they can see the source player are only looked up once for the
+     * whole batch.
+     *
+     * @param sound    The sound the player would listen.
+     * @param listener The player to validate as a listener of the sound.
+     * @return If the player is a valid listener of the sound.
+     */
+    public boolean validateListener(@NotNull PlayableSound sound, @NotNull Player listener) {
+        SoundOptions options = sound.getOptions();
+        return validateListener(listener, options.ignoresDisabled(), options.getPermissionToListen());
+    }
+
+    boolean validateListener(@NotNull Player listener, boolean ignoresDisabled, @Nullable String permissionToListen) {
+        if (removedListeners != null && removedListeners.contains(listener)) return false;
+
+        Byte cached = listenerStates.get(listener);
+        byte state;
+
+        if (cached == null) {
+            state = VALIDATED;
+            if (SoundManager.getSoundsState(listener)) state |= SOUNDS_ENABLED;
+            if (sourcePlayer == null || listener.canSee(sourcePlayer)) state |= CAN_SEE_SOURCE;
+            listenerStates.put(listener, state);
+        } else {
+            state = cached;
+        }
+
+        if ((state & CAN_SEE_SOURCE) == 0) return false;
+
+        return (ignoresDisabled || (state & SOUNDS_ENABLED) != 0)
+                && (permissionToListen == null || PermissionCache.hasPermission(listener, permissionToListen));
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.sound;
+
+import com.epicnicity322.epicpluginlib.core.logger.ConsoleLogger;
+import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
+import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
+import com.epicnicity322.playmoresounds.core.config.Configurations;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands sounds triggered outside the main thread, like by async chat or packet listeners, to the main thread. Any
+ * thread can add to the queue, and a single task drains it on the next tick, instead of one task for every sound.
+ * <p>
+ * The queue holds at most "Performance.Play Queue.Capacity" sounds, set in config.yml. When it's full, the newest or
+ * the oldest sounds are dropped, depending on "Performance.Play Queue.Overflow".
+ * <p>
+ * On Folia, sounds of a player are handed to the region that owns them instead of the queue.
+ */
+public final class PlayQueue {
+    private static final @NotNull ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private static final @NotNull AtomicInteger size = new AtomicInteger();
+    private static final @NotNull AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private static final @NotNull LongAdder dropped = new LongAdder();
+    private static final long WARNING_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+    private static volatile int capacity = 4096;
+    private static volatile @NotNull Overflow overflow = Overflow.DROP_OLDEST;
+    private static volatile int peakSize = 0;
+    private static volatile long lastWarning = 0;
+
+    static {
+        Runnable configUpdater = () -> {
+            var config = Configurations.CONFIG.getConfigurationHolder().getConfiguration();
+
+            capacity = Math.max(config.getNumber("Performance.Play Queue.Capacity").orElse(4096).intValue(), 1);
+            try {
+                overflow = Overflow.valueOf(config.getString("Performance.Play Queue.Overflow").orElse("DROP_OLDEST").toUpperCase());
+            } catch (IllegalArgumentException e) {
+                overflow = Overflow.DROP_OLDEST;
+            }
+        };
+
+        PlayMoreSounds.onInstance(configUpdater);
+        PlayMoreSounds.onEnable(configUpdater);
+        PlayMoreSounds.onReload(configUpdater);
+        PlayMoreSounds.onDisable(() -> {
+            queue.clear();
+            size.set(0);
+            drainScheduled.set(false);
+        });
+    }
+
+    private PlayQueue() {
+    }
+
+    /**
+     * Plays the sound to the player on the next tick, at the location the player is on that tick.
+     *
+     * @param sound  The sound to play.
+     * @param player The player to play the sound to.
+     */
+    public static void play(@NotNull Playable sound, @NotNull Player player) {
+        offer(player, () -> {
+            if (player.isOnline()) sound.play(player);
+        });
+    }
+
+    /**
+     * Plays the sound on the next tick.
+     *
+     * @param sound    The sound to play.
+     * @param player   The player to play the sound to, or null to play only to players in the radius of the location.
+     * @param location The location to play the sound.
+     */
+    public static void play(@NotNull Playable sound, @Nullable Player player, @NotNull Location location) {
+        offer(player, () -> {
+            if (player == null || player.isOnline()) sound.play(player, location);
+        });
+    }
+
+    private static void offer(@Nullable Entity owner, @NotNull Runnable action) {
+        PlayMoreSounds plugin = PlayMoreSounds.getInstance();
+        if (plugin == null) return;
+
+        if (owner != null && TaskScheduler.isFolia()) {
+            TaskScheduler.runFor(plugin, owner, action, 0);
+            return;
+        }
+
+        int newSize = size.incrementAndGet();
+
+        if (newSize > capacity) {
+            dropped.increment();
+            warnOverflow();
+
+            if (overflow == Overflow.DROP_NEWEST) {
+                size.decrementAndGet();
+                return;
+            }
+            if (queue.poll() != null) newSize = size.decrementAndGet();
+        }
+
+        queue.add(action);
+        if (newSize > peakSize) peakSize = newSize;
+
+        if (drainScheduled.compareAndSet(false, true)) TaskScheduler.run(plugin, PlayQueue::drain);
+    }
+
+    private static void drain() {
+        drainScheduled.set(false);
+
+        // Entries added while draining are left for the next tick.
+        int count = size.get();
+
+        for (int i = 0; i < count; ++i) {
+            Runnable action = queue.poll();
+            if (action == null) break;
+            size.decrementAndGet();
+
+            try {
+                action.run();
+            } catch (Throwable t) {
+                PlayMoreSoundsCore.getErrorHandler().report(t, "Play Queue Exception:");
+            }
+        }
+
+        PlayMoreSounds plugin = PlayMoreSounds.getInstance();
+        if (plugin != null && !queue.isEmpty() && drainScheduled.compareAndSet(false, true))
+            TaskScheduler.run(plugin, PlayQueue::drain);
+    }
+
+    private static void warnOverflow() {
+        long now = System.nanoTime();
+        long last = lastWarning;
+
+        if (last != 0 && now - last < WARNING_INTERVAL) return;
+        lastWarning = now;
+        PlayMoreSounds.getConsoleLogger().log("Too many sounds were played outside the main thread, the play queue is full and sounds are being dropped. Capacity: " + capacity + ".", ConsoleLogger.Level.WARN);
+    }
+
+    /**
+     * @return The amount of sounds waiting for the next drain.
+     */
+    public static int getSize() {
+        return size.get();
+    }
+
+    /**
+     * Gets the most sounds that were waiting in the queue at once since the last time this was called.
+     *
+     * @return The peak size of the queue.
+     */
+    public static int pollPeakSize() {
+        int peak = peakSize;
+        peakSize = size.get();
+        return peak;
+    }
+
+    /**
+     * Gets the amount of sounds dropped because the queue was full since the last time this was called.
+     *
+     * @return The dropped sounds.
+     */
+    public static int pollDropped() {
+        return (int) Math.min(dropped.sumThenReset(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * What to do when a sound is added to a full queue.
+     */
+    public enum Overflow {
+        /**
+         * The sound being added is dropped.
+         */
+        DROP_NEWEST,
+        /**
+         * The sound that is waiting the longest is dropped, so the sound being added can be added.
+         */
+        DROP_OLDEST
+    }
+}
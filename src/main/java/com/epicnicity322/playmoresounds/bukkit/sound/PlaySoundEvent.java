@@ -18,15 +18,19 @@
 
 package com.epicnicity322.playmoresounds.bukkit.sound;
 
+import com.epicnicity322.playmoresounds.bukkit.util.PermissionCache;
 import com.epicnicity322.playmoresounds.core.sound.SoundOptions;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Cancellable;
 import org.bukkit.event.Event;
 import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.RegisteredListener;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -38,6 +42,8 @@ import java.util.stream.Collectors;
  */
 public class PlaySoundEvent extends Event implements Cancellable {
     private static final @NotNull HandlerList handlers = new HandlerList();
+    private static volatile @Nullable RegisteredListener[] checkedListeners;
+    private static volatile boolean perChildHandlerRegistered = false;
     private final @NotNull PlayableSound sound;
     private final @Nullable Player sourcePlayer;
     private final @NotNull Collection<Player> listeners;
@@ -60,6 +66,45 @@ public class PlaySoundEvent extends Event implements Cancellable {
         return handlers;
     }
 
+    /**
+     * Whether any registered handler of this event is annotated with {@link PerChildSoundEvents}. The handlers are only
+     * looked up again when the registered listeners of this event change.
+     *
+     * @return If this event must be called for every child sound of rich sounds.
+     */
+    static boolean hasPerChildHandlers() {
+        RegisteredListener[] registered = handlers.getRegisteredListeners();
+
+        if (registered != checkedListeners) {
+            boolean found = false;
+
+            for (RegisteredListener listener : registered) {
+                if (hasPerChildHandler(listener.getListener())) {
+                    found = true;
+                    break;
+                }
+            }
+
+            perChildHandlerRegistered = found;
+            checkedListeners = registered;
+        }
+
+        return perChildHandlerRegistered;
+    }
+
+    private static boolean hasPerChildHandler(@NotNull Listener listener) {
+        Class<?> listenerClass = listener.getClass();
+
+        for (Method method : listenerClass.getMethods()) if (isPerChildHandler(method)) return true;
+        for (Method method : listenerClass.getDeclaredMethods()) if (isPerChildHandler(method)) return true;
+        return false;
+    }
+
+    private static boolean isPerChildHandler(@NotNull Method method) {
+        return method.isAnnotationPresent(PerChildSoundEvents.class) && method.getParameterCount() == 1
+                && method.getParameterTypes()[0].isAssignableFrom(PlaySoundEvent.class);
+    }
+
     /**
      * @return Whether the event is cancelled and the sound is not playing.
      */
@@ -213,7 +258,7 @@ public class PlaySoundEvent extends Event implements Cancellable {
         SoundOptions options = getSound().getOptions();
 
         return (options.ignoresDisabled() || SoundManager.getSoundsState(listener))
-                && (options.getPermissionToListen() == null || listener.hasPermission(options.getPermissionToListen()))
+                && (options.getPermissionToListen() == null || PermissionCache.hasPermission(listener, options.getPermissionToListen()))
                 && (sourcePlayer == null || listener.canSee(sourcePlayer));
     }
 
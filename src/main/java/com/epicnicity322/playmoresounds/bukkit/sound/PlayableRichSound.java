@@ -19,6 +19,9 @@
 package com.epicnicity322.playmoresounds.bukkit.sound;
 
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.PermissionCache;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
+import com.epicnicity322.playmoresounds.core.config.Configurations;
 import com.epicnicity322.playmoresounds.core.sound.RichSound;
 import com.epicnicity322.yamlhandler.ConfigurationSection;
 import org.bukkit.Bukkit;
@@ -29,13 +32,29 @@ import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.*;
+import java.util.function.IntConsumer;
 import java.util.function.Supplier;
 
 public class PlayableRichSound extends RichSound<PlayableSound> implements Delayable {
+    /**
+     * Lists reused on the main thread to find the players in range of sounds without delay, one for each distinct
+     * radius. They are not reused by sounds played while another sound is using them, like by event listeners.
+     */
+    private static final @NotNull ArrayList<ArrayList<Player>> rangeBuffers = new ArrayList<>();
+    private static volatile boolean perChildSoundEvents = false;
+    private static boolean rangeBuffersInUse = false;
+    private volatile @Nullable CompiledRichSound compiled;
+
+    static {
+        Runnable configUpdater = () -> perChildSoundEvents = Configurations.CONFIG.getConfigurationHolder().getConfiguration()
+                .getBoolean("Performance.Per Child Sound Events").orElse(false);
+
+        PlayMoreSounds.onInstance(configUpdater);
+        PlayMoreSounds.onEnable(configUpdater);
+        PlayMoreSounds.onReload(configUpdater);
+    }
+
     public PlayableRichSound(@NotNull String name, boolean enabled, boolean cancellable, @Nullable Collection<PlayableSound> childSounds) {
         super(name, enabled, cancellable, childSounds);
     }
@@ -49,36 +68,68 @@ public class PlayableRichSound extends RichSound<PlayableSound> implements Delay
         return new PlayableSound(section);
     }
 
-    @Override
-    public void play(@Nullable Player player, @NotNull Location sourceLocation) {
-        if (isEnabled() && !getChildSounds().isEmpty()) {
-            var event = new PlayRichSoundEvent(player, sourceLocation, this);
-
-            Bukkit.getPluginManager().callEvent(event);
+    /**
+     * Gets an immutable snapshot of this rich sound, which is what is used to play it. A new snapshot is made if any
+     * property of this rich sound or of its child sounds changed since the last one was made.
+     *
+     * @return The compiled snapshot of this rich sound.
+     */
+    public @NotNull CompiledRichSound getCompiled() {
+        CompiledRichSound compiled = this.compiled;
+        // Getting the count before compiling, so changes made while compiling make the snapshot outdated.
+        int modificationCount = getModificationCount();
 
-            if (event.isCancelled()) return;
+        if (compiled == null || compiled.modificationCount != modificationCount)
+            this.compiled = compiled = new CompiledRichSound(this, modificationCount);
 
-            for (PlayableSound s : getChildSounds())
-                s.play(player, event.location);
-        }
+        return compiled;
     }
 
     @Override
     public @NotNull RichPlayResult playDelayable(@Nullable Player player, @NotNull Location sourceLocation) {
-        if (isEnabled() && !getChildSounds().isEmpty()) {
+        CompiledRichSound compiled = getCompiled();
+
+        // Listeners are found and sounds are played by the region that owns the location. The listeners are not known
+        //yet, but the returned task can cancel the play and its delayed sounds.
+        if (TaskScheduler.isFolia() && compiled.isPlayable() && !TaskScheduler.isOwnedByCurrentThread(sourceLocation)) {
+            var deferred = new DeferredPlay();
+            deferred.handoff = TaskScheduler.runAt(Objects.requireNonNull(PlayMoreSounds.getInstance()), sourceLocation, () -> {
+                if (!deferred.isCancelled()) deferred.played(playDelayable(player, sourceLocation).delayedTasks());
+            });
+            return new RichPlayResult(Collections.emptyList(), Collections.singletonList(deferred));
+        }
+
+        if (compiled.isPlayable()) {
             var event = new PlayRichSoundEvent(player, sourceLocation, this);
 
             Bukkit.getPluginManager().callEvent(event);
 
             if (event.isCancelled()) return new RichPlayResult(Collections.emptyList(), Collections.emptyList());
 
+            int priority = VoiceBudget.getPriority(getName());
+
+            // Handlers of PlaySoundEvent annotated with PerChildSoundEvents expect it to be called for every child sound.
+            if (!perChildSoundEvents && !PlaySoundEvent.hasPerChildHandlers())
+                return playBatched(compiled, player, event.location, priority);
+
             var listeners = new HashSet<Player>();
             var tasks = new ArrayList<BukkitTask>();
+            boolean reuseBuffers = TaskScheduler.isMainThread() && !rangeBuffersInUse;
+            ArrayList<Player> buffer = reuseBuffers ? rangeBuffer(0) : null;
 
-            for (PlayableSound s : getChildSounds()) {
-                ChildPlayResult result = s.playDelayable(player, event.location);
-                listeners.addAll(result.listeners());
-                if (result.delayedTask() != null) tasks.add(result.delayedTask());
+            if (reuseBuffers) rangeBuffersInUse = true;
+            try {
+                for (PlayableSound s : compiled.sounds) {
+                    ChildPlayResult result = s.playDelayable(player, event.location, priority, buffer);
+                    listeners.addAll(result.listeners());
+                    if (result.delayedTask() != null) tasks.add(result.delayedTask());
+                    if (buffer != null) buffer.clear();
+                }
+            } finally {
+                if (reuseBuffers) {
+                    buffer.clear();
+                    rangeBuffersInUse = false;
+                }
             }
 
             return new RichPlayResult(listeners, tasks);
@@ -87,42 +138,185 @@ public class PlayableRichSound extends RichSound<PlayableSound> implements Delay
         return new RichPlayResult(Collections.emptyList(), Collections.emptyList());
     }
 
+    private static @NotNull ArrayList<Player> rangeBuffer(int index) {
+        while (rangeBuffers.size() <= index) rangeBuffers.add(new ArrayList<>());
+        return rangeBuffers.get(index);
+    }
+
+    /**
+     * Plays the child sounds finding listeners only once for every distinct radius, and calling a single
+     * {@link PlayBatchSoundEvent} for all child sounds with the same delay. Delayed sounds are played by a single
+     * {@link SoundScheduler} timeline that steps through the delays.
+     */
+    private @NotNull RichPlayResult playBatched(@NotNull CompiledRichSound compiled, @Nullable Player player, @NotNull Location location, int priority) {
+        int size = compiled.sounds.length;
+        // Listeners of sounds without delay are not kept after this method, so they can be found in the reused lists.
+        boolean reuseBuffers = size != 0 && compiled.delays[compiled.byDelay[size - 1]] <= 0
+                && TaskScheduler.isMainThread() && !rangeBuffersInUse;
+
+        if (!reuseBuffers) return playBatched(compiled, player, location, priority, false);
+
+        rangeBuffersInUse = true;
+        try {
+            return playBatched(compiled, player, location, priority, true);
+        } finally {
+            for (ArrayList<Player> buffer : rangeBuffers) buffer.clear();
+            rangeBuffersInUse = false;
+        }
+    }
+
+    private @NotNull RichPlayResult playBatched(@NotNull CompiledRichSound compiled, @Nullable Player player, @NotNull Location location, int priority, boolean reuseBuffers) {
+        int size = compiled.sounds.length;
+        var indexes = new int[size];
+        @SuppressWarnings("unchecked") Collection<Player>[] listenersOf = new Collection[size];
+        var radii = new double[size];
+        @SuppressWarnings("unchecked") Collection<Player>[] playersInRadius = new Collection[size];
+        int radiusCount = 0;
+        int count = 0;
+        Boolean onlyToSelf = null;
+        var allListeners = new HashSet<Player>();
+
+        // Going through the sounds sorted by delay, so sounds with the same delay are next to each other.
+        for (int index : compiled.byDelay) {
+            double radius = compiled.radii[index];
+            Collection<Player> listeners = null;
+
+            if (player != null) {
+                String permission = compiled.permissionsRequired[index];
+                if (permission != null && !PermissionCache.hasPermission(player, permission)) continue;
+
+                if (radius != 0.0 && onlyToSelf == null) onlyToSelf = PlayableSound.playsOnlyToSelf(player);
+                if (radius == 0.0 || onlyToSelf) listeners = Collections.singleton(player);
+            }
+
+            if (listeners == null) {
+                for (int i = 0; i < radiusCount; ++i) {
+                    if (radii[i] == radius) {
+                        listeners = playersInRadius[i];
+                        break;
+                    }
+                }
+                if (listeners == null) {
+                    if (reuseBuffers && radius > 0.0) {
+                        ArrayList<Player> buffer = rangeBuffer(radiusCount);
+                        SoundManager.collectInRange(radius, location, buffer);
+                        listeners = buffer;
+                    } else {
+                        // Listeners of batches are never modified, so they can be views of the online players.
+                        listeners = SoundManager.viewInRange(radius, location);
+                    }
+                    radii[radiusCount] = radius;
+                    playersInRadius[radiusCount++] = listeners;
+                }
+            }
+
+            indexes[count] = index;
+            listenersOf[count++] = listeners;
+            allListeners.addAll(listeners);
+        }
+
+        if (count == 0) return new RichPlayResult(allListeners, Collections.emptyList());
+
+        // Splitting the sounds in batches of the same delay.
+        var batchStarts = new int[count + 1];
+        var delays = new long[count];
+        int batches = 0;
+
+        for (int i = 0; i < count; ++i) {
+            long delay = compiled.delays[indexes[i]];
+
+            if (i == 0 || delay != delays[batches - 1]) {
+                batchStarts[batches] = i;
+                delays[batches++] = delay;
+            }
+        }
+
+        batchStarts[batches] = count;
+        int firstDelayed = 0;
+
+        if (delays[0] <= 0) {
+            playBatch(compiled, player, location, priority, indexes, listenersOf, 0, batchStarts[1]);
+            firstDelayed = 1;
+        }
+        if (firstDelayed == batches) return new RichPlayResult(allListeners, Collections.emptyList());
+
+        int offset = firstDelayed;
+        IntConsumer playStep = step -> playBatch(compiled, player, location, priority, indexes, listenersOf, batchStarts[offset + step], batchStarts[offset + step + 1]);
+        BukkitTask timeline = SoundScheduler.scheduleTimeline(Arrays.copyOfRange(delays, firstDelayed, batches), TaskScheduler.isFolia() ?
+                step -> TaskScheduler.runAt(Objects.requireNonNull(PlayMoreSounds.getInstance()), location, () -> playStep.accept(step)) : playStep);
+
+        return new RichPlayResult(allListeners, Collections.singletonList(timeline));
+    }
+
+    private void playBatch(@NotNull CompiledRichSound compiled, @Nullable Player sourcePlayer, @NotNull Location location,
+                           int priority, int[] indexes, @NotNull Collection<Player>[] listenersOf, int from, int to) {
+        int size = to - from;
+        var sounds = new PlayableSound[size];
+        for (int i = 0; i < size; ++i) sounds[i] = compiled.sounds[indexes[from + i]];
+        List<Collection<Player>> listeners = Arrays.asList(Arrays.copyOfRange(listenersOf, from, to));
+
+        var event = new PlayBatchSoundEvent(sourcePlayer, location, this, Arrays.asList(sounds), listeners);
+
+        Bukkit.getPluginManager().callEvent(event);
+
+        if (event.isCancelled()) return;
+
+        for (int i = 0; i < size; ++i) {
+            int index = indexes[from + i];
+            double radius = compiled.radii[index];
+            Location soundLocation = radius == -1.0 || radius == -2.0 ? null : event.location;
+            SoundEmitter.Emission emission = compiled.emissions[index];
+            boolean ignoresDisabled = compiled.ignoresDisabled[index];
+            String permissionToListen = compiled.permissionsToListen[index];
+
+            for (Player listener : listeners.get(i)) {
+                if (!event.validateListener(listener, ignoresDisabled, permissionToListen)) continue;
+
+                VoiceBudget.emit(listener, emission, soundLocation, priority);
+            }
+        }
+    }
+
     /**
      * Plays the sound repeatedly after the time set on period.
-     * The {@link BukkitRunnable} will be cancelled if the sound is disabled, has no child sounds or if the player is no
-     * longer online, in case there is one.
+     * The loop will be cancelled if the sound is disabled, has no child sounds or if the player is no longer online, in
+     * case there is one.
      * {@link PlayRichSoundEvent} will be called for every time the sound is played by this loop.
+     * <p>
+     * All loops are driven by {@link SoundScheduler}, the returned {@link BukkitRunnable} is only a handle to cancel the
+     * loop and is not a scheduled bukkit task. On Folia, the location and the breaker of loops with a player are run by
+     * the region that owns the player.
      *
      * @param player         The player to play the sound.
      * @param sourceLocation The location where the sound will play.
      * @param delay          The time in ticks to wait before playing the first sound.
      * @param period         The time in ticks to wait before playing the sound again.
      * @param breaker        A boolean that will run in the loop, if the boolean is true the loop will be cancelled.
-     * @return The {@link BukkitRunnable} of the loop that can be used to cancel later.
+     * @return The handle of the loop that can be used to cancel later.
      * @throws IllegalStateException If PlayMoreSounds was not instantiated by bukkit yet.
      */
     public @NotNull BukkitRunnable playInLoop(@Nullable Player player, @NotNull Supplier<Location> sourceLocation, long delay, long period, @Nullable Supplier<Boolean> breaker) {
         var main = PlayMoreSounds.getInstance();
         if (main == null) throw new IllegalStateException("PlayMoreSounds is not loaded.");
+        if (!getCompiled().isPlayable()) return SoundScheduler.cancelledLoop();
 
-        Supplier<Boolean> finalBreaker = () -> !isEnabled() || getChildSounds().isEmpty()
-                || (player != null && !player.isOnline()) || (breaker != null && breaker.get());
-
-        BukkitRunnable runnable = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (finalBreaker.get()) {
-                    if (!isCancelled()) cancel();
+        if (TaskScheduler.isFolia() && player != null) {
+            // The scheduler is ticked by the global region, but the location and the breaker usually read the player,
+            //which is only allowed by the region that owns the player.
+            var loop = new BukkitRunnable[1];
+            loop[0] = SoundScheduler.scheduleLoop(() -> TaskScheduler.runFor(main, player, () -> {
+                if (loop[0].isCancelled()) return;
+                if (breaker != null && breaker.get()) {
+                    loop[0].cancel();
                     return;
                 }
 
                 play(player, sourceLocation.get());
-            }
-        };
-
-        if (isEnabled() && !getChildSounds().isEmpty())
-            runnable.runTaskTimer(main, delay, period);
+            }, 0), () -> !getCompiled().isPlayable() || !player.isOnline(), delay, period);
+            return loop[0];
+        }
 
-        return runnable;
+        return SoundScheduler.scheduleLoop(() -> play(player, sourceLocation.get()), () -> !getCompiled().isPlayable()
+                || (player != null && !player.isOnline()) || (breaker != null && breaker.get()), delay, period);
     }
 }
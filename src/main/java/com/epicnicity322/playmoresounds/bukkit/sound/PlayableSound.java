@@ -19,6 +19,8 @@
 package com.epicnicity322.playmoresounds.bukkit.sound;
 
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.PermissionCache;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
 import com.epicnicity322.playmoresounds.core.sound.Sound;
 import com.epicnicity322.playmoresounds.core.sound.SoundCategory;
 import com.epicnicity322.playmoresounds.core.sound.SoundOptions;
@@ -28,11 +30,14 @@ import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.potion.PotionEffectType;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Objects;
 
 public class PlayableSound extends Sound implements Delayable {
     public PlayableSound(@Nullable String id, @NotNull String sound, @Nullable SoundCategory category, float volume, float pitch, long delay, @Nullable SoundOptions options) {
@@ -62,35 +67,79 @@ public class PlayableSound extends Sound implements Delayable {
 
     @Override
     public @NotNull ChildPlayResult playDelayable(@Nullable Player player, @NotNull Location sourceLocation) {
+        return playDelayable(player, sourceLocation, 0, null);
+    }
+
+    /**
+     * Plays this sound with the priority of the rich sound it is a child of.
+     *
+     * @param buffer An empty list to find the players in range in, if this sound has no delay. The listeners of the
+     *               result are this list, so it can only be reused once the caller is done with them.
+     * @see VoiceBudget#getPriority(String)
+     */
+    @NotNull ChildPlayResult playDelayable(@Nullable Player player, @NotNull Location sourceLocation, int priority, @Nullable ArrayList<Player> buffer) {
+        // Listeners are found and the sound is played by the region that owns the location. The listeners are not known
+        //yet, but the returned task can cancel the play and its delayed step.
+        if (TaskScheduler.isFolia() && !TaskScheduler.isOwnedByCurrentThread(sourceLocation)) {
+            var deferred = new DeferredPlay();
+            deferred.handoff = TaskScheduler.runAt(Objects.requireNonNull(PlayMoreSounds.getInstance()), sourceLocation, () -> {
+                if (deferred.isCancelled()) return;
+                BukkitTask delayedTask = playDelayable(player, sourceLocation, priority, null).delayedTask();
+                if (delayedTask != null) deferred.played(Collections.singletonList(delayedTask));
+            });
+            return new ChildPlayResult(Collections.emptySet(), deferred);
+        }
+
         SoundOptions options = getOptions();
         final Collection<Player> listeners;
 
         if (player != null) {
             String permission = options.getPermissionRequired();
 
-            if (permission != null && !player.hasPermission(permission)) {
+            if (permission != null && !PermissionCache.hasPermission(player, permission)) {
                 return new ChildPlayResult(Collections.emptySet(), null);
             }
 
             // Sound should only be played to the source player if radius is 0, the game mode is spectator, or if they are valid to be in invisibility mode.
-            if (options.getRadius() == 0.0 || player.getGameMode() == GameMode.SPECTATOR || (player.hasPotionEffect(PotionEffectType.INVISIBILITY) && player.hasPermission("playmoresounds.bypass.invisibility"))) {
+            if (options.getRadius() == 0.0 || playsOnlyToSelf(player)) {
                 listeners = Collections.singleton(player);
             } else {
-                listeners = SoundManager.getInRange(options.getRadius(), sourceLocation);
+                listeners = getInRange(options.getRadius(), sourceLocation, buffer);
             }
         } else {
-            listeners = SoundManager.getInRange(options.getRadius(), sourceLocation);
+            listeners = getInRange(options.getRadius(), sourceLocation, buffer);
         }
 
         if (getDelay() == 0) {
-            play(player, listeners, sourceLocation);
+            play(player, listeners, sourceLocation, priority);
             return new ChildPlayResult(listeners, null);
         } else {
-            return new ChildPlayResult(listeners, Bukkit.getScheduler().runTaskLater(PlayMoreSounds.getInstance(), () -> play(player, listeners, sourceLocation), getDelay()));
+            return new ChildPlayResult(listeners, SoundScheduler.scheduleTimeline(new long[]{getDelay()}, TaskScheduler.isFolia() ?
+                    step -> TaskScheduler.runAt(Objects.requireNonNull(PlayMoreSounds.getInstance()), sourceLocation, () -> play(player, listeners, sourceLocation, priority)) :
+                    step -> play(player, listeners, sourceLocation, priority)));
         }
     }
 
-    private void play(@Nullable Player sourcePlayer, @NotNull Collection<Player> listeners, @NotNull Location soundLocation) {
+    private @NotNull Collection<Player> getInRange(double radius, @NotNull Location location, @Nullable ArrayList<Player> buffer) {
+        // Delayed sounds keep their listeners until they play, so they can't use the buffer.
+        if (buffer == null || radius <= 0.0 || getDelay() != 0) return SoundManager.getInRange(radius, location);
+
+        SoundManager.collectInRange(radius, location, buffer);
+        return buffer;
+    }
+
+    /**
+     * Sounds played by a player in spectator mode, or with invisibility effect and the permission
+     * 'playmoresounds.bypass.invisibility', are only played to themselves.
+     *
+     * @param player The source player.
+     * @return Whether the sounds of this player should only be heard by them.
+     */
+    static boolean playsOnlyToSelf(@NotNull Player player) {
+        return player.getGameMode() == GameMode.SPECTATOR || (player.hasPotionEffect(PotionEffectType.INVISIBILITY) && PermissionCache.hasPermission(player, "playmoresounds.bypass.invisibility"));
+    }
+
+    private void play(@Nullable Player sourcePlayer, @NotNull Collection<Player> listeners, @NotNull Location soundLocation, int priority) {
         // Calling PlaySoundEvent.
         var event = new PlaySoundEvent(this, sourcePlayer, soundLocation, listeners, getOptions().getRadius() == -1.0 || getOptions().getRadius() == -2.0);
 
@@ -98,15 +147,16 @@ public class PlayableSound extends Sound implements Delayable {
 
         if (event.isCancelled()) return;
 
+        SoundEmitter.Emission emission = null;
+        Location location = event.playingGlobally() ? null : event.location;
+
         // Playing the sound to the valid listeners.
         for (Player listener : listeners) {
             if (!event.validateListener(listener)) continue;
+            // Preparing the sound only once for all listeners.
+            if (emission == null) emission = SoundEmitter.get().prepare(getSound(), getCategory(), getVolume(), getPitch());
 
-            if (event.playingGlobally()) {
-                listener.playSound(listener.getLocation(), getSound(), getCategory().asBukkit(), getVolume(), getPitch());
-            } else {
-                listener.playSound(event.location, getSound(), getCategory().asBukkit(), getVolume(), getPitch());
-            }
+            VoiceBudget.emit(listener, emission, location, priority);
         }
     }
 }
\ No newline at end of file
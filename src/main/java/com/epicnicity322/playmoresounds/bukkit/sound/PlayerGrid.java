@@ -0,0 +1,215 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.sound;
+
+import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.*;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.UUID;
+
+/**
+ * Keeps online players bucketed by the chunk they are in, so players in a radius can be found by only looking at the
+ * chunks the radius covers.
+ * <p>
+ * The grid is only updated and read on the main thread. {@link SoundManager#getInRange(double, Location)} falls back
+ * to looking through every player in the world when called asynchronously or before the grid is loaded.
+ */
+public final class PlayerGrid {
+    private static final @NotNull HashMap<UUID, HashMap<Long, ArrayList<Player>>> worlds = new HashMap<>();
+    private static final @NotNull HashMap<UUID, Cell> playerCells = new HashMap<>();
+    /**
+     * Location reused to read player positions, only accessed on the main thread.
+     */
+    private static final @NotNull Location scratch = new Location(null, 0, 0, 0);
+    private static boolean loaded = false;
+
+    static {
+        PlayMoreSounds.onDisable(() -> {
+            loaded = false;
+            worlds.clear();
+            playerCells.clear();
+        });
+    }
+
+    private PlayerGrid() {
+    }
+
+    /**
+     * Registers the listeners that keep the grid updated and adds the players that are already online.
+     *
+     * @param plugin The plugin to register the listeners and the resync task.
+     */
+    public static void load(@NotNull PlayMoreSounds plugin) {
+        // There is no single thread to keep the grid on Folia.
+        if (loaded || TaskScheduler.isFolia()) return;
+
+        Bukkit.getPluginManager().registerEvents(new Listener() {
+            @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+            public void onPlayerMove(PlayerMoveEvent event) {
+                Location from = event.getFrom();
+                Location to = event.getTo();
+
+                if (from.getBlockX() >> 4 != to.getBlockX() >> 4 || from.getBlockZ() >> 4 != to.getBlockZ() >> 4 || from.getWorld() != to.getWorld())
+                    update(event.getPlayer(), to);
+            }
+
+            @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+            public void onPlayerTeleport(PlayerTeleportEvent event) {
+                update(event.getPlayer(), event.getTo());
+            }
+
+            @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+            public void onVehicleMove(VehicleMoveEvent event) {
+                // Players riding vehicles don't call move event.
+                for (Entity passenger : event.getVehicle().getPassengers())
+                    if (passenger instanceof Player player) update(player, event.getTo());
+            }
+
+            @EventHandler(priority = EventPriority.MONITOR)
+            public void onPlayerRespawn(PlayerRespawnEvent event) {
+                update(event.getPlayer(), event.getRespawnLocation());
+            }
+
+            @EventHandler(priority = EventPriority.MONITOR)
+            public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+                Player player = event.getPlayer();
+                update(player, player.getLocation(scratch));
+            }
+
+            @EventHandler(priority = EventPriority.LOWEST)
+            public void onPlayerJoin(PlayerJoinEvent event) {
+                Player player = event.getPlayer();
+                update(player, player.getLocation(scratch));
+            }
+
+            @EventHandler(priority = EventPriority.MONITOR)
+            public void onPlayerQuit(PlayerQuitEvent event) {
+                remove(event.getPlayer());
+            }
+        }, plugin);
+
+        // Entities can be moved by other plugins or the server without calling any event, so the whole grid is
+        //re-synced every second.
+        TaskScheduler.runTimer(plugin, PlayerGrid::resync, 20, 20);
+        loaded = true;
+        resync();
+    }
+
+    private static void resync() {
+        if (!loaded) return;
+        for (Player player : Bukkit.getOnlinePlayers()) update(player, player.getLocation(scratch));
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static void update(@NotNull Player player, @Nullable Location location) {
+        if (location == null || location.getWorld() == null) return;
+
+        UUID world = location.getWorld().getUID();
+        long key = chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        Cell cell = playerCells.get(player.getUniqueId());
+
+        if (cell != null) {
+            if (cell.key == key && cell.world.equals(world)) return;
+            removeFromCell(player, cell);
+        }
+
+        worlds.computeIfAbsent(world, k -> new HashMap<>()).computeIfAbsent(key, k -> new ArrayList<>(4)).add(player);
+        playerCells.put(player.getUniqueId(), new Cell(world, key));
+    }
+
+    private static void remove(@NotNull Player player) {
+        Cell cell = playerCells.remove(player.getUniqueId());
+        if (cell != null) removeFromCell(player, cell);
+    }
+
+    private static void removeFromCell(@NotNull Player player, @NotNull Cell cell) {
+        HashMap<Long, ArrayList<Player>> cells = worlds.get(cell.world);
+        if (cells == null) return;
+        ArrayList<Player> players = cells.get(cell.key);
+        if (players == null) return;
+
+        players.remove(player);
+        if (players.isEmpty()) cells.remove(cell.key);
+    }
+
+    /**
+     * Adds the players within the radius of the location to the collection.
+     *
+     * @param location The center of the radius.
+     * @param radius   The radius, greater than 0.
+     * @param found    The collection to add the players to.
+     * @return false if the grid could not be used in the current thread, in which case nothing was added.
+     */
+    static boolean collectInRange(@NotNull Location location, double radius, @NotNull Collection<Player> found) {
+        if (!loaded || !TaskScheduler.isMainThread()) return false;
+
+        HashMap<Long, ArrayList<Player>> cells = worlds.get(location.getWorld().getUID());
+        if (cells == null) return true;
+
+        double x = location.getX(), y = location.getY(), z = location.getZ();
+        double radiusSquared = radius * radius;
+        int minChunkX = (int) Math.floor(x - radius) >> 4;
+        int maxChunkX = (int) Math.floor(x + radius) >> 4;
+        int minChunkZ = (int) Math.floor(z - radius) >> 4;
+        int maxChunkZ = (int) Math.floor(z + radius) >> 4;
+
+        // Looking through the occupied cells directly is cheaper when the radius covers more chunks than there are occupied.
+        if ((long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1) > cells.size()) {
+            for (ArrayList<Player> players : cells.values()) collect(players, x, y, z, radiusSquared, found);
+        } else {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; ++chunkX)
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; ++chunkZ) {
+                    ArrayList<Player> players = cells.get(chunkKey(chunkX, chunkZ));
+                    if (players != null) collect(players, x, y, z, radiusSquared, found);
+                }
+        }
+
+        return true;
+    }
+
+    private static void collect(@NotNull ArrayList<Player> players, double x, double y, double z, double radiusSquared, @NotNull Collection<Player> found) {
+        for (int i = 0; i < players.size(); ++i) {
+            Player player = players.get(i);
+            Location location = player.getLocation(scratch);
+            double dx = location.getX() - x, dy = location.getY() - y, dz = location.getZ() - z;
+
+            if (dx * dx + dy * dy + dz * dz <= radiusSquared) found.add(player);
+        }
+    }
+
+    private record Cell(@NotNull UUID world, long key) {
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.sound;
+
+import com.epicnicity322.epicpluginlib.bukkit.reflection.ReflectionUtil;
+import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
+import com.epicnicity322.playmoresounds.core.sound.SoundCategory;
+import net.kyori.adventure.audience.Audience;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Plays sounds to players. A sound is prepared once into an {@link Emission}, which is then played to every listener,
+ * so the key, category, volume and pitch of the sound are not resolved again for each listener.
+ * <p>
+ * On Paper, sounds are prepared as Adventure sounds and played through the player's audience. Anywhere else they are
+ * played with {@link Player#playSound(Location, String, org.bukkit.SoundCategory, float, float)}.
+ */
+abstract class SoundEmitter {
+    private static final @NotNull SoundEmitter emitter;
+
+    static {
+        // Old paper versions don't have adventure, or their players are not audiences.
+        if (PlayMoreSoundsCore.isPaper() && ReflectionUtil.getClass("net.kyori.adventure.audience.Audience") != null
+                && Audience.class.isAssignableFrom(Player.class)) {
+            emitter = new AdventureSoundEmitter();
+        } else {
+            emitter = new BukkitSoundEmitter();
+        }
+    }
+
+    static @NotNull SoundEmitter get() {
+        return emitter;
+    }
+
+    /**
+     * Prepares a sound to be played to any amount of players.
+     *
+     * @param key      The key of the sound.
+     * @param category The category of the sound.
+     * @param volume   The volume of the sound.
+     * @param pitch    The pitch of the sound.
+     * @return The prepared sound.
+     */
+    abstract @NotNull Emission prepare(@NotNull String key, @NotNull SoundCategory category, float volume, float pitch);
+
+    /**
+     * @return An emission that plays the sound with {@link Player#playSound(Location, String, org.bukkit.SoundCategory, float, float)}.
+     */
+    static @NotNull Emission bukkitEmission(@NotNull String key, @NotNull SoundCategory category, float volume, float pitch) {
+        org.bukkit.SoundCategory bukkitCategory = category.asBukkit();
+
+        return new Emission(key, category, volume, pitch) {
+            @Override
+            void emit(@NotNull Player listener, @Nullable Location location) {
+                listener.playSound(location == null ? listener.getLocation() : location, key, bukkitCategory, volume, pitch);
+            }
+        };
+    }
+
+    abstract static class Emission {
+        private final @NotNull String key;
+        private final @NotNull SoundCategory category;
+        private final float volume;
+        private final float pitch;
+
+        Emission(@NotNull String key, @NotNull SoundCategory category, float volume, float pitch) {
+            this.key = key;
+            this.category = category;
+            this.volume = volume;
+            this.pitch = pitch;
+        }
+
+        /**
+         * @return The key of the sound this emission plays.
+         */
+        @NotNull String getKey() {
+            return key;
+        }
+
+        /**
+         * @return Whether the other emission plays a sound with the same key, category, volume and pitch as this one.
+         */
+        boolean isSameSound(@NotNull Emission other) {
+            return other == this || (category == other.category && volume == other.volume && pitch == other.pitch
+                    && key.equals(other.key));
+        }
+
+        /**
+         * Plays the prepared sound to the listener.
+         *
+         * @param listener The player to play the sound to.
+         * @param location The location to play the sound, or null to play at the listener's location.
+         */
+        abstract void emit(@NotNull Player listener, @Nullable Location location);
+    }
+
+    private static final class BukkitSoundEmitter extends SoundEmitter {
+        @Override
+        @NotNull Emission prepare(@NotNull String key, @NotNull SoundCategory category, float volume, float pitch) {
+            return bukkitEmission(key, category, volume, pitch);
+        }
+    }
+}
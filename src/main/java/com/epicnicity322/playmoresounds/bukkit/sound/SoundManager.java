@@ -19,8 +19,8 @@
 package com.epicnicity322.playmoresounds.bukkit.sound;
 
 import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
 import com.epicnicity322.playmoresounds.core.sound.SoundOptions;
-import com.epicnicity322.playmoresounds.core.sound.SoundType;
 import com.epicnicity322.playmoresounds.core.util.PMSHelper;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -30,40 +30,76 @@ import org.bukkit.persistence.PersistentDataType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class SoundManager {
-    private static final @NotNull HashMap<UUID, Boolean> soundStateCache = new HashMap<>();
+    /**
+     * The sounds state of online players. Loaded on join, evicted on quit, and read by every listener of every sound,
+     * possibly from other threads.
+     */
+    private static final @NotNull ConcurrentHashMap<UUID, Boolean> soundStateCache = new ConcurrentHashMap<>();
+    /**
+     * Sounds states that were toggled but not yet saved to the player's persistent data container. Only the last state
+     * of a player is saved, on the next tick or when they quit.
+     */
+    private static final @NotNull ConcurrentHashMap<Player, Boolean> pendingStateWrites = new ConcurrentHashMap<>();
+    private static final @NotNull AtomicBoolean flushScheduled = new AtomicBoolean(false);
     private static NamespacedKey soundState;
 
+    static {
+        PlayMoreSounds.onDisable(() -> {
+            flushSoundsStates();
+            soundStateCache.clear();
+        });
+    }
+
     private SoundManager() {
     }
 
+    private static @NotNull NamespacedKey soundStateKey() {
+        if (soundState == null) {
+            if (PlayMoreSounds.getInstance() == null)
+                throw new IllegalStateException("PlayMoreSounds must be loaded to use this method.");
+
+            soundState = new NamespacedKey(PlayMoreSounds.getInstance(), "sound_state");
+        }
+
+        return soundState;
+    }
+
     /**
      * Enables or Disables sounds of a {@link Player}.
      * <p>
      * Sounds that have the option {@link SoundOptions#ignoresDisabled()} will be played anyway.
+     * <p>
+     * The state is saved to the player's data on the next tick.
      *
      * @param player The player to toggle the sounds.
      * @param state  The state of sounds: Enabled or Disabled.
      * @throws IllegalStateException If PlayMoreSounds is not instantiated yet.
      */
     public static void toggleSoundsState(@NotNull Player player, boolean state) {
-        var uuid = player.getUniqueId();
-
-        soundStateCache.put(uuid, state);
-
-        if (soundState == null) {
-            if (PlayMoreSounds.getInstance() == null)
-                throw new IllegalStateException("PlayMoreSounds must be loaded to use this method.");
-
-            soundState = new NamespacedKey(PlayMoreSounds.getInstance(), "sound_state");
+        var main = PlayMoreSounds.getInstance();
+        if (main == null) throw new IllegalStateException("PlayMoreSounds must be loaded to use this method.");
+
+        soundStateCache.put(player.getUniqueId(), state);
+        pendingStateWrites.put(player, state);
+
+        if (TaskScheduler.isFolia()) {
+            // Player data can only be written by the region that owns the player.
+            TaskScheduler.runFor(main, player, () -> {
+                Boolean pending = pendingStateWrites.remove(player);
+                if (pending != null) player.getPersistentDataContainer().set(soundStateKey(), PersistentDataType.INTEGER, pending ? 1 : 0);
+            }, 0);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            TaskScheduler.run(main, SoundManager::flushSoundsStates);
         }
-
-        player.getPersistentDataContainer().set(soundState, PersistentDataType.INTEGER, state ? 1 : 0);
     }
 
     /**
@@ -74,22 +110,44 @@ public final class SoundManager {
      * @throws IllegalStateException If PlayMoreSounds is not instantiated yet.
      */
     public static boolean getSoundsState(@NotNull Player player) {
-        var uuid = player.getUniqueId();
-        Boolean state = soundStateCache.get(uuid);
+        Boolean state = soundStateCache.get(player.getUniqueId());
+        if (state != null) return state;
 
-        if (state == null) {
-            if (soundState == null) {
-                if (PlayMoreSounds.getInstance() == null)
-                    throw new IllegalStateException("PlayMoreSounds must be loaded to use this method.");
+        boolean persistentState = player.getPersistentDataContainer().getOrDefault(soundStateKey(), PersistentDataType.INTEGER, 1) == 1;
+        // Not caching offline players, they would never be evicted.
+        if (player.isOnline()) soundStateCache.putIfAbsent(player.getUniqueId(), persistentState);
+        return persistentState;
+    }
 
-                soundState = new NamespacedKey(PlayMoreSounds.getInstance(), "sound_state");
-            }
+    /**
+     * Loads the sounds state of a player that joined, so it's not read from their data when sounds are played.
+     *
+     * @param player The player that joined.
+     */
+    public static void loadSoundsState(@NotNull Player player) {
+        soundStateCache.put(player.getUniqueId(), player.getPersistentDataContainer().getOrDefault(soundStateKey(), PersistentDataType.INTEGER, 1) == 1);
+    }
 
-            boolean persistentState = player.getPersistentDataContainer().getOrDefault(soundState, PersistentDataType.INTEGER, 1) == 1;
-            soundStateCache.put(uuid, persistentState);
-            return persistentState;
-        } else {
-            return state;
+    /**
+     * Saves the sounds state of a player that is leaving, in case it was not saved yet, and removes it from memory.
+     *
+     * @param player The player that is leaving.
+     */
+    public static void unloadSoundsState(@NotNull Player player) {
+        Boolean pending = pendingStateWrites.remove(player);
+        if (pending != null) player.getPersistentDataContainer().set(soundStateKey(), PersistentDataType.INTEGER, pending ? 1 : 0);
+        soundStateCache.remove(player.getUniqueId());
+    }
+
+    private static void flushSoundsStates() {
+        flushScheduled.set(false);
+        if (pendingStateWrites.isEmpty()) return;
+
+        NamespacedKey key = soundStateKey();
+
+        for (Player player : pendingStateWrites.keySet()) {
+            Boolean state = pendingStateWrites.remove(player);
+            if (state != null) player.getPersistentDataContainer().set(key, PersistentDataType.INTEGER, state ? 1 : 0);
         }
     }
 
@@ -99,7 +157,10 @@ public final class SoundManager {
      * Sounds with invalid namespaced keys which {@link PMSHelper#isNamespacedKey(String)} returns false, are ignored.
      *
      * @param player The player to stop the sounds.
-     * @param sounds The sounds to stop or null if you want to stop all minecraft sounds, custom sounds are not supported for null.
+     * @param sounds The sounds to stop or null if you want to stop all sounds. On servers with {@link Player#stopAllSounds()},
+     *               null stops every sound, including custom and resource pack sounds not played by PlayMoreSounds. On
+     *               older servers, it stops the sounds PlayMoreSounds played to the player, or every minecraft sound if
+     *               too many were played.
      * @param delay  The delay to wait before stopping the sounds.
      * @throws IllegalStateException If PlayMoreSounds was not instantiated by bukkit yet.
      */
@@ -110,18 +171,7 @@ public final class SoundManager {
         if (sounds != null)
             sounds.removeIf(sound -> !PMSHelper.isNamespacedKey(sound));
 
-        Runnable stopper = () -> {
-            if (sounds == null)
-                for (SoundType toStop : SoundType.getPresentSoundTypes())
-                    // Sounds of #getSoundTypes() are always present.
-                    player.stopSound(toStop.getSound().orElse(""));
-            else
-                for (String sound : sounds)
-                    player.stopSound(sound);
-        };
-
-        if (delay <= 0) stopper.run();
-        else Bukkit.getScheduler().runTaskLater(PlayMoreSounds.getInstance(), stopper, delay);
+        SoundStopper.stop(player, sounds, delay);
     }
 
     /**
@@ -135,19 +185,12 @@ public final class SoundManager {
      *
      * @param radius   The range of blocks to get the players.
      * @param location The location to calculate the radius.
-     * @return An immutable collection of players in this range.
+     * @return A new collection of players in this range.
      */
     public static @NotNull Collection<Player> getInRange(double radius, @NotNull Location location) {
         if (radius > 0.0) {
-            radius = square(radius);
-            var inRadius = new HashSet<Player>();
-
-            for (var player : location.getWorld().getPlayers()) {
-                if (distance(location, player.getLocation()) <= radius) {
-                    inRadius.add(player);
-                }
-            }
-
+            var inRadius = new ArrayList<Player>();
+            collectInRange(radius, location, inRadius);
             return inRadius;
         } else if (radius == -1.0) {
             // Creating new HashSet because Bukkit#getOnlinePlayers is not immutable.
@@ -159,6 +202,40 @@ public final class SoundManager {
         }
     }
 
+    /**
+     * Adds the players within the radius of the location to the collection, so callers can reuse the collection
+     * instead of getting a new one from {@link #getInRange(double, Location)}.
+     *
+     * @param radius   The range of blocks to get the players, greater than 0.
+     * @param location The location to calculate the radius.
+     * @param found    The collection to add the players to.
+     */
+    static void collectInRange(double radius, @NotNull Location location, @NotNull Collection<Player> found) {
+        // Using the chunk grid of players when possible, so only players in chunks near the location are checked.
+        if (PlayerGrid.collectInRange(location, radius, found)) return;
+
+        radius = square(radius);
+
+        for (var player : location.getWorld().getPlayers()) {
+            if (distance(location, player.getLocation()) <= radius) {
+                found.add(player);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #getInRange(double, Location)}, but players in the server are not copied to a new collection when
+     * called on the main thread.
+     *
+     * @param radius   The range of blocks to get the players.
+     * @param location The location to calculate the radius.
+     * @return A collection of players in this range that must not be modified, as it may be a view of the online players.
+     */
+    static @NotNull Collection<Player> viewInRange(double radius, @NotNull Location location) {
+        if (radius == -1.0 && TaskScheduler.isMainThread()) return Collections.unmodifiableCollection(Bukkit.getOnlinePlayers());
+        return getInRange(radius, location);
+    }
+
     private static double distance(Location loc1, Location loc2) {
         return square(loc1.getX() - loc2.getX()) + square(loc1.getY() - loc2.getY()) + square(loc1.getZ() - loc2.getZ());
     }
@@ -0,0 +1,335 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.sound;
+
+import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
+import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * Drives every sound loop and delayed sound of PlayMoreSounds from a single task that runs every tick, instead of one
+ * bukkit task for every loop or delay. On Folia the wheel is ticked by the global region, and sounds played by loops
+ * and timelines are handed to the region that owns their location.
+ * <p>
+ * Loops and timelines are kept in a hashed timing wheel: an entry due on tick T is in the bucket T modulo the wheel
+ * size, so each tick only looks at the entries of one bucket. Entries due further than the wheel size stay in their
+ * bucket until the wheel reaches their tick.
+ */
+public final class SoundScheduler {
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    @SuppressWarnings("unchecked")
+    private static final @NotNull ArrayList<Scheduled>[] wheel = new ArrayList[WHEEL_SIZE];
+    /**
+     * Loops and timelines scheduled outside the main thread, added to the wheel on the next tick.
+     */
+    private static final @NotNull ConcurrentLinkedQueue<Scheduled> pending = new ConcurrentLinkedQueue<>();
+    private static long currentTick = 0;
+    private static int scheduled = 0;
+    private static @Nullable TaskScheduler.Task ticker;
+
+    static {
+        PlayMoreSounds.onDisable(() -> {
+            synchronized (SoundScheduler.class) {
+                ticker = null;
+            }
+            for (ArrayList<Scheduled> bucket : wheel) {
+                if (bucket == null) continue;
+                bucket.forEach(Scheduled::cancel);
+                bucket.clear();
+            }
+            pending.clear();
+            scheduled = 0;
+        });
+    }
+
+    private SoundScheduler() {
+    }
+
+    /**
+     * Schedules an action to run repeatedly until it's cancelled or the breaker returns true.
+     *
+     * @param action  The action to run.
+     * @param breaker Tested right before every run, the loop is cancelled instead of running if it returns true.
+     * @param delay   The time in ticks to wait before the first run.
+     * @param period  The time in ticks between runs. Like bukkit timers, 0 runs every tick and negative values run the
+     *                action only once.
+     * @return A handle that can be used to cancel the loop.
+     * @throws IllegalStateException If PlayMoreSounds was not instantiated by bukkit yet.
+     */
+    static @NotNull BukkitRunnable scheduleLoop(@NotNull Runnable action, @NotNull BooleanSupplier breaker, long delay, long period) {
+        var loop = new Loop(action, breaker, delay, period);
+        schedule(loop);
+        return loop;
+    }
+
+    /**
+     * Schedules a sequence of steps, each to run after its offset in ticks from now. A single timeline entry moves
+     * through the steps, so no task is created for each step.
+     *
+     * @param offsets The offsets of each step in ticks, sorted in ascending order.
+     * @param step    The action to run for each step, accepting the index of the step in the offsets array.
+     * @return A task that can be used to cancel the steps that did not run yet.
+     * @throws IllegalArgumentException If there are no offsets.
+     * @throws IllegalStateException    If PlayMoreSounds was not instantiated by bukkit yet.
+     */
+    static @NotNull BukkitTask scheduleTimeline(long[] offsets, @NotNull IntConsumer step) {
+        if (offsets.length == 0) throw new IllegalArgumentException("Timeline must have at least one step.");
+
+        var timeline = new Timeline(offsets, step);
+        schedule(timeline);
+        return timeline;
+    }
+
+    private static void schedule(@NotNull Scheduled entry) {
+        if (TaskScheduler.isMainThread()) {
+            entry.start = currentTick;
+            add(entry, currentTick + Math.max(entry.delay, 1));
+        } else {
+            pending.add(entry);
+        }
+
+        startTicker();
+    }
+
+    /**
+     * @return A handle that is already cancelled, for loops that should not start.
+     */
+    static @NotNull BukkitRunnable cancelledLoop() {
+        var loop = new Loop(() -> {
+        }, () -> true, 0, 0);
+        loop.cancel();
+        return loop;
+    }
+
+    /**
+     * @return The amount of loops and timelines in the wheel, including cancelled ones that were not removed yet.
+     */
+    public static int getScheduledLoops() {
+        return scheduled;
+    }
+
+    private static synchronized void startTicker() {
+        if (ticker != null) return;
+
+        var main = PlayMoreSounds.getInstance();
+        if (main == null) throw new IllegalStateException("PlayMoreSounds is not loaded.");
+
+        ticker = TaskScheduler.runTimer(main, SoundScheduler::tick, 1, 1);
+    }
+
+    private static void add(@NotNull Scheduled entry, long tick) {
+        entry.nextTick = tick;
+        int index = (int) (tick & WHEEL_MASK);
+        ArrayList<Scheduled> bucket = wheel[index];
+        if (bucket == null) wheel[index] = bucket = new ArrayList<>();
+        bucket.add(entry);
+        ++scheduled;
+    }
+
+    private static void tick() {
+        ++currentTick;
+
+        Scheduled pendingEntry;
+        while ((pendingEntry = pending.poll()) != null) {
+            pendingEntry.start = currentTick;
+            add(pendingEntry, currentTick + Math.max(pendingEntry.delay, 1));
+        }
+
+        if (scheduled == 0) {
+            // Stopping the ticker while there is nothing scheduled, it's started again on the next scheduled entry.
+            synchronized (SoundScheduler.class) {
+                if (pending.isEmpty() && ticker != null) {
+                    ticker.cancel();
+                    ticker = null;
+                }
+            }
+            return;
+        }
+
+        ArrayList<Scheduled> bucket = wheel[(int) (currentTick & WHEEL_MASK)];
+        if (bucket == null || bucket.isEmpty()) return;
+
+        int count = bucket.size();
+        int kept = 0;
+
+        for (int i = 0; i < count; ++i) {
+            Scheduled entry = bucket.get(i);
+
+            if (entry.cancelled) {
+                --scheduled;
+                continue;
+            }
+            if (entry.nextTick > currentTick) {
+                // Due in a later turn of the wheel.
+                bucket.set(kept++, entry);
+                continue;
+            }
+
+            long nextTick;
+
+            try {
+                nextTick = entry.runDue(currentTick);
+            } catch (Throwable t) {
+                nextTick = -1;
+                PlayMoreSoundsCore.getErrorHandler().report(t, "Sound Scheduler Exception:");
+            }
+
+            if (entry.cancelled || nextTick <= currentTick) {
+                entry.cancel();
+                --scheduled;
+                continue;
+            }
+
+            entry.nextTick = nextTick;
+
+            if ((nextTick & WHEEL_MASK) == (currentTick & WHEEL_MASK)) {
+                bucket.set(kept++, entry);
+            } else {
+                --scheduled;
+                add(entry, nextTick);
+            }
+        }
+
+        // Entries scheduled to this bucket by the actions that ran are after count.
+        int size = bucket.size();
+        for (int i = count; i < size; ++i) bucket.set(kept++, bucket.get(i));
+        bucket.subList(kept, size).clear();
+    }
+
+    /**
+     * An entry of the wheel. This is a {@link BukkitRunnable} so loops stay compatible with code that cancels loops
+     * returned by {@link PlayableRichSound#playInLoop(org.bukkit.entity.Player, java.util.function.Supplier, long, long, java.util.function.Supplier)},
+     * but it is never scheduled as a bukkit task.
+     */
+    private abstract static class Scheduled extends BukkitRunnable {
+        private final long delay;
+        /**
+         * The tick this entry was added to the wheel.
+         */
+        long start;
+        private long nextTick;
+        private volatile boolean cancelled = false;
+
+        private Scheduled(long delay) {
+            this.delay = delay;
+        }
+
+        /**
+         * Runs this entry because it is due.
+         *
+         * @param tick The current tick.
+         * @return The tick this entry is due again, or any tick not after the current if it's done.
+         */
+        abstract long runDue(long tick);
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final class Loop extends Scheduled {
+        private final @NotNull Runnable action;
+        private final @NotNull BooleanSupplier breaker;
+        private final long period;
+
+        private Loop(@NotNull Runnable action, @NotNull BooleanSupplier breaker, long delay, long period) {
+            super(delay);
+            this.action = action;
+            this.breaker = breaker;
+            this.period = period;
+        }
+
+        @Override
+        long runDue(long tick) {
+            if (breaker.getAsBoolean()) return -1;
+            action.run();
+            return period < 0 ? -1 : tick + Math.max(period, 1);
+        }
+
+        @Override
+        public void run() {
+            if (!isCancelled()) action.run();
+        }
+    }
+
+    /**
+     * Steps through offsets of a sequence, moving to the tick of the next offset after each step.
+     */
+    private static final class Timeline extends Scheduled implements BukkitTask {
+        private final long[] offsets;
+        private final @NotNull IntConsumer step;
+        private int cursor = 0;
+
+        private Timeline(long[] offsets, @NotNull IntConsumer step) {
+            super(offsets[0]);
+            this.offsets = offsets;
+            this.step = step;
+        }
+
+        @Override
+        long runDue(long tick) {
+            // Steps with the same offset run on the same tick.
+            do step.accept(cursor++);
+            while (cursor < offsets.length && start + Math.max(offsets[cursor], 1) <= tick);
+
+            return cursor < offsets.length ? start + Math.max(offsets[cursor], 1) : -1;
+        }
+
+        @Override
+        public void run() {
+            // Timelines only run through the wheel.
+        }
+
+        /**
+         * @return -1, timelines are not bukkit tasks.
+         */
+        @Override
+        public int getTaskId() {
+            return -1;
+        }
+
+        @Override
+        public @NotNull Plugin getOwner() {
+            return Objects.requireNonNull(PlayMoreSounds.getInstance());
+        }
+
+        @Override
+        public boolean isSync() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.sound;
+
+import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
+import com.epicnicity322.playmoresounds.core.sound.SoundType;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stops sounds played to players.
+ * <p>
+ * The sound keys PlayMoreSounds sends to each player are remembered until they are stopped or the player quits, so
+ * stop on exit only sends stop packets for sounds the player actually received. Stopping every sound uses a single
+ * packet when the server supports it. Delayed stops are run by the {@link SoundScheduler} instead of a task each.
+ */
+public final class SoundStopper {
+    /**
+     * The max sound keys remembered for a player. Players that received more different sounds than this without any
+     * being stopped have every sound to stop sent, like if nothing was remembered.
+     */
+    private static final int MAX_REMEMBERED = 256;
+    private static final boolean stopAllSupported;
+    private static final @NotNull ConcurrentHashMap<UUID, Started> started = new ConcurrentHashMap<>();
+    /**
+     * Sounds to stop once a player exits the biome that played them, by the delay to stop them.
+     */
+    private static final @NotNull ConcurrentHashMap<UUID, ConcurrentHashMap<Long, Set<String>>> stopOnExit = new ConcurrentHashMap<>();
+    private static boolean loaded = false;
+
+    static {
+        boolean supported;
+
+        try {
+            Player.class.getMethod("stopAllSounds");
+            supported = true;
+        } catch (NoSuchMethodException e) {
+            supported = false;
+        }
+
+        stopAllSupported = supported;
+
+        PlayMoreSounds.onDisable(() -> {
+            loaded = false;
+            started.clear();
+            stopOnExit.clear();
+        });
+    }
+
+    private SoundStopper() {
+    }
+
+    /**
+     * Registers the listener that forgets the sounds of players that quit.
+     *
+     * @param plugin The plugin to register the listener.
+     */
+    public static void load(@NotNull PlayMoreSounds plugin) {
+        if (loaded) return;
+
+        Bukkit.getPluginManager().registerEvents(new Listener() {
+            @EventHandler(priority = EventPriority.MONITOR)
+            public void onPlayerQuit(PlayerQuitEvent event) {
+                UUID id = event.getPlayer().getUniqueId();
+                started.remove(id);
+                stopOnExit.remove(id);
+            }
+        }, plugin);
+        loaded = true;
+    }
+
+    /**
+     * Remembers that the sound was sent to the player.
+     *
+     * @param player The player that received the sound.
+     * @param key    The key of the sound.
+     */
+    static void started(@NotNull Player player, @NotNull String key) {
+        if (!loaded) return;
+
+        Started playerStarted = started.computeIfAbsent(player.getUniqueId(), k -> new Started());
+        if (playerStarted.overflowed) return;
+
+        if (playerStarted.keys.size() >= MAX_REMEMBERED) playerStarted.overflowed = true;
+        else playerStarted.keys.add(key);
+    }
+
+    /**
+     * Stops the sounds to the player, whether they were played by PlayMoreSounds or not.
+     *
+     * @param player The player to stop the sounds.
+     * @param sounds The keys of the sounds to stop, or null to stop every sound.
+     * @param delay  The delay in ticks to wait before stopping the sounds.
+     * @throws IllegalStateException If PlayMoreSounds was not instantiated by bukkit yet.
+     */
+    public static void stop(@NotNull Player player, @Nullable Collection<String> sounds, long delay) {
+        schedule(player, () -> {
+            if (sounds == null) {
+                stopAll(player);
+                return;
+            }
+
+            Started playerStarted = started.get(player.getUniqueId());
+
+            for (String sound : sounds) {
+                player.stopSound(sound);
+                if (playerStarted != null) playerStarted.keys.remove(sound);
+            }
+        }, delay);
+    }
+
+    /**
+     * Stops the sounds to the player, but only the ones PlayMoreSounds sent to the player and were not stopped yet.
+     *
+     * @param player The player to stop the sounds.
+     * @param sounds The keys of the sounds to stop.
+     * @param delay  The delay in ticks to wait before stopping the sounds.
+     * @throws IllegalStateException If PlayMoreSounds was not instantiated by bukkit yet.
+     */
+    public static void stopStarted(@NotNull Player player, @NotNull Collection<String> sounds, long delay) {
+        if (sounds.isEmpty()) return;
+
+        schedule(player, () -> {
+            Started playerStarted = started.get(player.getUniqueId());
+            // Nothing was sent to this player.
+            if (playerStarted == null) return;
+
+            for (String sound : sounds) {
+                if (playerStarted.overflowed) player.stopSound(sound);
+                else if (playerStarted.keys.remove(sound)) player.stopSound(sound);
+            }
+        }, delay);
+    }
+
+    /**
+     * Adds sounds to stop the next time {@link #stopOnExit(Player)} is called for the player.
+     *
+     * @param player The player to stop the sounds.
+     * @param sounds The keys of the sounds to stop.
+     * @param delay  The delay in ticks to wait before stopping the sounds, once the player exits.
+     */
+    public static void addStopOnExit(@NotNull Player player, @NotNull Set<String> sounds, long delay) {
+        if (sounds.isEmpty()) return;
+
+        stopOnExit.computeIfAbsent(player.getUniqueId(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(delay, k -> ConcurrentHashMap.newKeySet()).addAll(sounds);
+    }
+
+    /**
+     * Stops the sounds added by {@link #addStopOnExit(Player, Set, long)} for the player, that were sent to the player.
+     * Sounds with the same delay are stopped together.
+     *
+     * @param player The player that exited.
+     */
+    public static void stopOnExit(@NotNull Player player) {
+        ConcurrentHashMap<Long, Set<String>> toStop = stopOnExit.remove(player.getUniqueId());
+        if (toStop == null) return;
+
+        for (Map.Entry<Long, Set<String>> delayed : toStop.entrySet())
+            stopStarted(player, delayed.getValue(), delayed.getKey());
+    }
+
+    private static void stopAll(@NotNull Player player) {
+        Started playerStarted = started.remove(player.getUniqueId());
+
+        if (stopAllSupported) {
+            player.stopAllSounds();
+        } else if (playerStarted != null && !playerStarted.overflowed) {
+            for (String sound : playerStarted.keys) player.stopSound(sound);
+        } else {
+            for (SoundType toStop : SoundType.getPresentSoundTypes())
+                // Sounds of #getPresentSoundTypes() are always present.
+                player.stopSound(toStop.getSound().orElse(""));
+        }
+    }
+
+    private static void schedule(@NotNull Player player, @NotNull Runnable stopper, long delay) {
+        PlayMoreSounds plugin = PlayMoreSounds.getInstance();
+        if (plugin == null) throw new IllegalStateException("PlayMoreSounds is not loaded.");
+
+        if (delay <= 0) {
+            stopper.run();
+        } else if (TaskScheduler.isFolia()) {
+            TaskScheduler.runFor(plugin, player, stopper, delay);
+        } else {
+            SoundScheduler.scheduleLoop(() -> {
+                if (player.isOnline()) stopper.run();
+            }, () -> false, delay, -1);
+        }
+    }
+
+    /**
+     * The sound keys sent to a player.
+     */
+    private static final class Started {
+        private final @NotNull Set<String> keys = ConcurrentHashMap.newKeySet();
+        private volatile boolean overflowed = false;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.sound;
+
+import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.bukkit.util.TaskScheduler;
+import com.epicnicity322.playmoresounds.core.config.Configurations;
+import com.epicnicity322.yamlhandler.ConfigurationSection;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Limits the sounds each player receives in a tick. Identical sounds, with the same key, category, volume and pitch
+ * in the same block, are merged so they are only sent once in the tick, and other sounds are dropped once the player
+ * received the max sounds per tick set in config.yml. Sounds of triggers with a priority can go past the max by the
+ * amount of their priority.
+ * <p>
+ * The budget is only used on the main thread, sounds played asynchronously or on Folia are always sent.
+ */
+public final class VoiceBudget {
+    private static final @NotNull HashMap<UUID, Voices> voices = new HashMap<>();
+    /**
+     * Location reused to read listener positions, only accessed on the main thread.
+     */
+    private static final @NotNull Location scratch = new Location(null, 0, 0, 0);
+    private static volatile boolean enabled = false;
+    private static volatile int maxPerTick = 24;
+    private static volatile @NotNull Map<String, Integer> priorities = Collections.emptyMap();
+    private static boolean loaded = false;
+    private static volatile long tick = 0;
+
+    static {
+        Runnable configUpdater = () -> {
+            var config = Configurations.CONFIG.getConfigurationHolder().getConfiguration();
+            var newPriorities = new HashMap<String, Integer>();
+            ConfigurationSection prioritiesSection = config.getConfigurationSection("Performance.Voice Budget.Priorities");
+
+            if (prioritiesSection != null) {
+                for (Map.Entry<String, Object> priority : prioritiesSection.getNodes().entrySet()) {
+                    if (priority.getValue() instanceof Number number && number.intValue() > 0)
+                        newPriorities.put(priority.getKey(), number.intValue());
+                }
+            }
+
+            maxPerTick = Math.max(config.getNumber("Performance.Voice Budget.Max Sounds Per Tick").orElse(24).intValue(), 1);
+            priorities = newPriorities;
+            enabled = config.getBoolean("Performance.Voice Budget.Enabled").orElse(true);
+        };
+
+        PlayMoreSounds.onInstance(configUpdater);
+        PlayMoreSounds.onEnable(configUpdater);
+        PlayMoreSounds.onReload(configUpdater);
+        PlayMoreSounds.onDisable(() -> {
+            loaded = false;
+            voices.clear();
+        });
+    }
+
+    private VoiceBudget() {
+    }
+
+    /**
+     * Starts counting ticks and registers the listener that forgets the budget of players that quit.
+     *
+     * @param plugin The plugin to register the listener and the tick counter.
+     */
+    public static void load(@NotNull PlayMoreSounds plugin) {
+        if (loaded) return;
+
+        Bukkit.getPluginManager().registerEvents(new Listener() {
+            @EventHandler(priority = EventPriority.MONITOR)
+            public void onPlayerQuit(PlayerQuitEvent event) {
+                voices.remove(event.getPlayer().getUniqueId());
+            }
+        }, plugin);
+        TaskScheduler.runTimer(plugin, () -> ++tick, 1, 1);
+        loaded = true;
+    }
+
+    /**
+     * @return The ticks counted since the plugin was enabled.
+     */
+    public static long getTick() {
+        return tick;
+    }
+
+    /**
+     * @param trigger The name of the rich sound.
+     * @return The priority of this trigger in config.yml, 0 by default.
+     */
+    static int getPriority(@NotNull String trigger) {
+        return priorities.getOrDefault(trigger, 0);
+    }
+
+    /**
+     * Plays the emission to the listener if the listener's budget in this tick allows it.
+     *
+     * @param listener The player to play the sound to.
+     * @param emission The prepared sound.
+     * @param location The location to play the sound, or null to play at the listener's location.
+     * @param priority The amount of sounds this sound can go past the max sounds per tick.
+     */
+    static void emit(@NotNull Player listener, @NotNull SoundEmitter.Emission emission, @Nullable Location location, int priority) {
+        if (!enabled || !loaded || !TaskScheduler.isMainThread()) {
+            emission.emit(listener, location);
+            SoundStopper.started(listener, emission.getKey());
+            return;
+        }
+
+        Location at = location == null ? listener.getLocation(scratch) : location;
+        long block = blockKey(at.getBlockX(), at.getBlockY(), at.getBlockZ());
+        Voices listenerVoices = voices.get(listener.getUniqueId());
+
+        if (listenerVoices == null) {
+            voices.put(listener.getUniqueId(), listenerVoices = new Voices());
+        } else if (listenerVoices.tick != tick) {
+            // Letting go of the emissions of the last tick.
+            Arrays.fill(listenerVoices.emissions, 0, listenerVoices.count, null);
+            listenerVoices.count = 0;
+        }
+
+        listenerVoices.tick = tick;
+        int count = listenerVoices.count;
+
+        for (int i = 0; i < count; ++i) {
+            // Merging with the same sound already sent in this tick.
+            if (listenerVoices.blocks[i] == block && listenerVoices.emissions[i].isSameSound(emission)) return;
+        }
+
+        if (count >= maxPerTick + priority) return;
+
+        if (count == listenerVoices.blocks.length) {
+            listenerVoices.blocks = Arrays.copyOf(listenerVoices.blocks, count * 2);
+            listenerVoices.emissions = Arrays.copyOf(listenerVoices.emissions, count * 2);
+        }
+
+        listenerVoices.blocks[count] = block;
+        listenerVoices.emissions[count] = emission;
+        listenerVoices.count = count + 1;
+        emission.emit(listener, location);
+        SoundStopper.started(listener, emission.getKey());
+    }
+
+    private static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * The sounds a player received in a tick.
+     */
+    private static final class Voices {
+        private long tick;
+        private int count;
+        private long[] blocks = new long[8];
+        private SoundEmitter.Emission[] emissions = new SoundEmitter.Emission[8];
+    }
+}
@@ -23,8 +23,10 @@ import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
 import com.epicnicity322.playmoresounds.bukkit.listeners.*;
 import com.epicnicity322.playmoresounds.bukkit.sound.PlayableSound;
 import com.epicnicity322.playmoresounds.core.PlayMoreSoundsCore;
+import com.epicnicity322.playmoresounds.core.config.Configurations;
 import com.epicnicity322.playmoresounds.core.util.PMSHelper;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
@@ -108,11 +110,31 @@ public final class ListenerRegister {
      * @return The amount of listeners that were loaded.
      */
     public static int loadListeners() {
+        return loadListeners(null);
+    }
+
+    /**
+     * Registers the sound listeners that depend on any of the changed configurations. Listeners that don't tell which
+     * configurations they depend on are always loaded. Every listener is loaded if config.yml changed, since it might
+     * have toggled the halloween event.
+     *
+     * @param changed The configurations that changed, or null to load every listener.
+     * @return The amount of listeners that are loaded, including the ones that were not loaded again.
+     * @see PMSListener#getConfigurations()
+     */
+    public static int loadListeners(@Nullable Set<Configurations> changed) {
         int loadedListeners = 0;
         boolean halloween = PMSHelper.halloweenEvent();
 
+        if (changed != null && changed.contains(Configurations.CONFIG)) changed = null;
+
         for (PMSListener listener : listeners) {
             try {
+                if (changed != null && !dependsOn(listener, changed)) {
+                    if (listener.isLoaded()) ++loadedListeners;
+                    continue;
+                }
+
                 listener.load();
 
                 if (halloween && listener.getRichSound() != null && !listener.getName().equals("Change Held Item"))
@@ -132,4 +154,12 @@ public final class ListenerRegister {
 
         return loadedListeners;
     }
+
+    private static boolean dependsOn(@NotNull PMSListener listener, @NotNull Set<Configurations> changed) {
+        Set<Configurations> configurations = listener.getConfigurations();
+        if (configurations == null) return true;
+
+        for (Configurations configuration : configurations) if (changed.contains(configuration)) return true;
+        return false;
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.util;
+
+import com.epicnicity322.playmoresounds.bukkit.PlayMoreSounds;
+import com.epicnicity322.playmoresounds.core.config.Configurations;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the results of {@link Player#hasPermission(String)} for the permissions checked when playing sounds, since
+ * permission plugins can make these checks expensive and they happen for every listener of every sound.
+ * <p>
+ * Bukkit has no event for when permissions change, so the results of a player are forgotten after the time set in
+ * 'Performance.Permission Cache Ticks' of config.yml, when the player joins, quits or changes world, and when
+ * PlayMoreSounds is reloaded. Permission nodes are expected to be interned, so lookups are mostly identity checks.
+ */
+public final class PermissionCache {
+    private static final @NotNull ConcurrentHashMap<UUID, Permissions> players = new ConcurrentHashMap<>();
+    private static volatile long cacheNanos = TimeUnit.MILLISECONDS.toNanos(1000);
+    private static boolean loaded = false;
+
+    static {
+        Runnable configUpdater = () -> cacheNanos = TimeUnit.MILLISECONDS.toNanos(Configurations.CONFIG.getConfigurationHolder()
+                .getConfiguration().getNumber("Performance.Permission Cache Ticks").orElse(20).longValue() * 50);
+
+        PlayMoreSounds.onInstance(configUpdater);
+        PlayMoreSounds.onEnable(configUpdater);
+        PlayMoreSounds.onReload(() -> {
+            configUpdater.run();
+            players.clear();
+        });
+        PlayMoreSounds.onDisable(() -> {
+            loaded = false;
+            players.clear();
+        });
+    }
+
+    private PermissionCache() {
+    }
+
+    /**
+     * Registers the listeners that forget the results of players that join, quit or change world.
+     *
+     * @param plugin The plugin to register the listeners.
+     */
+    public static void load(@NotNull PlayMoreSounds plugin) {
+        if (loaded) return;
+
+        Bukkit.getPluginManager().registerEvents(new Listener() {
+            @EventHandler(priority = EventPriority.LOWEST)
+            public void onPlayerJoin(PlayerJoinEvent event) {
+                invalidate(event.getPlayer());
+            }
+
+            @EventHandler(priority = EventPriority.MONITOR)
+            public void onPlayerQuit(PlayerQuitEvent event) {
+                invalidate(event.getPlayer());
+            }
+
+            @EventHandler(priority = EventPriority.LOWEST)
+            public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+                // Permission plugins may give different permissions in each world.
+                invalidate(event.getPlayer());
+            }
+        }, plugin);
+        loaded = true;
+    }
+
+    /**
+     * Checks if the player has the permission, using the cached result if it was checked recently.
+     *
+     * @param player     The player to check.
+     * @param permission The permission node, preferably interned.
+     * @return The result of {@link Player#hasPermission(String)}.
+     */
+    public static boolean hasPermission(@NotNull Player player, @NotNull String permission) {
+        long cacheNanos = PermissionCache.cacheNanos;
+        // Delayed sounds can still check players that quit, their results would never be forgotten.
+        if (cacheNanos <= 0 || !player.isOnline()) return player.hasPermission(permission);
+
+        long now = System.nanoTime();
+        UUID uuid = player.getUniqueId();
+        Permissions permissions = players.get(uuid);
+
+        if (permissions == null || now - permissions.created > cacheNanos) {
+            permissions = new Permissions(now, new ConcurrentHashMap<>());
+            players.put(uuid, permissions);
+        }
+
+        Boolean result = permissions.results.get(permission);
+
+        if (result == null) {
+            result = player.hasPermission(permission);
+            permissions.results.put(permission, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Forgets the cached results of this player, so the next checks ask the permission plugin again.
+     *
+     * @param player The player to forget the results of.
+     */
+    public static void invalidate(@NotNull Player player) {
+        players.remove(player.getUniqueId());
+    }
+
+    /**
+     * Forgets the cached results of all players.
+     */
+    public static void invalidateAll() {
+        players.clear();
+    }
+
+    private record Permissions(long created, @NotNull ConcurrentHashMap<String, Boolean> results) {
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.bukkit.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Schedules tasks with the bukkit scheduler, or with the global, region, entity and async schedulers on Folia, where
+ * the bukkit scheduler is not available.
+ * <p>
+ * Folia schedulers are used through reflection, since they are not in the API PlayMoreSounds is compiled against.
+ * Delays and periods are in ticks.
+ */
+public final class TaskScheduler {
+    private static final boolean folia;
+
+    static {
+        boolean folia1;
+
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            folia1 = true;
+        } catch (ClassNotFoundException ignored) {
+            folia1 = false;
+        }
+
+        folia = folia1;
+    }
+
+    private TaskScheduler() {
+    }
+
+    /**
+     * @return Whether the server is running Folia, where there is no single main thread.
+     */
+    public static boolean isFolia() {
+        return folia;
+    }
+
+    /**
+     * Structures of PlayMoreSounds that are only accessed by the main thread, like the player grid, are not used on
+     * Folia, since there is no single main thread there.
+     *
+     * @return Whether the current thread is the main thread of a server that is not Folia.
+     */
+    public static boolean isMainThread() {
+        return !folia && Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * @param location The location to check.
+     * @return Whether the current thread can access this location: the thread of the region that owns the location on
+     * Folia, or the main thread elsewhere.
+     */
+    public static boolean isOwnedByCurrentThread(@NotNull Location location) {
+        if (!folia) return Bukkit.isPrimaryThread();
+        return (boolean) Folia.invoke(Folia.isOwnedByCurrentRegionLocation, null, location);
+    }
+
+    /**
+     * @param entity The entity to check.
+     * @return Whether the current thread can access this entity: the thread of the region that owns the entity on
+     * Folia, or the main thread elsewhere.
+     */
+    public static boolean isOwnedByCurrentThread(@NotNull Entity entity) {
+        if (!folia) return Bukkit.isPrimaryThread();
+        return (boolean) Folia.invoke(Folia.isOwnedByCurrentRegionEntity, null, entity);
+    }
+
+    /**
+     * Runs the task on the next tick, in the global region on Folia.
+     */
+    public static @NotNull Task run(@NotNull Plugin plugin, @NotNull Runnable task) {
+        if (!folia) return new BukkitTaskHandle(Bukkit.getScheduler().runTask(plugin, task));
+        return new FoliaTaskHandle(Folia.invoke(Folia.globalRun, Folia.globalScheduler(), plugin, Folia.consumer(task)));
+    }
+
+    /**
+     * Runs the task after the delay, in the global region on Folia.
+     */
+    public static @NotNull Task runLater(@NotNull Plugin plugin, @NotNull Runnable task, long delay) {
+        if (!folia) return new BukkitTaskHandle(Bukkit.getScheduler().runTaskLater(plugin, task, delay));
+        return new FoliaTaskHandle(Folia.invoke(Folia.globalRunDelayed, Folia.globalScheduler(), plugin, Folia.consumer(task), Math.max(delay, 1)));
+    }
+
+    /**
+     * Runs the task repeatedly, in the global region on Folia.
+     */
+    public static @NotNull Task runTimer(@NotNull Plugin plugin, @NotNull Runnable task, long delay, long period) {
+        if (!folia) return new BukkitTaskHandle(Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period));
+        return new FoliaTaskHandle(Folia.invoke(Folia.globalRunAtFixedRate, Folia.globalScheduler(), plugin, Folia.consumer(task), Math.max(delay, 1), Math.max(period, 1)));
+    }
+
+    /**
+     * Runs the task on the next tick, by the region that owns the location on Folia.
+     */
+    public static @NotNull Task runAt(@NotNull Plugin plugin, @NotNull Location location, @NotNull Runnable task) {
+        if (!folia) return new BukkitTaskHandle(Bukkit.getScheduler().runTask(plugin, task));
+        return new FoliaTaskHandle(Folia.invoke(Folia.regionRun, Folia.regionScheduler(), plugin, location, Folia.consumer(task)));
+    }
+
+    /**
+     * Runs the task after the delay, by the region that owns the entity on Folia. The task does not run if the entity
+     * is removed before that.
+     */
+    public static @NotNull Task runFor(@NotNull Plugin plugin, @NotNull Entity entity, @NotNull Runnable task, long delay) {
+        if (!folia) return new BukkitTaskHandle(Bukkit.getScheduler().runTaskLater(plugin, task, delay));
+        return new FoliaTaskHandle(Folia.invoke(Folia.entityRunDelayed, Folia.entityScheduler(entity), plugin, Folia.consumer(task), null, Math.max(delay, 1)));
+    }
+
+    /**
+     * Runs the task repeatedly, by the region that owns the entity on Folia. The task stops if the entity is removed.
+     */
+    public static @NotNull Task runTimerFor(@NotNull Plugin plugin, @NotNull Entity entity, @NotNull Runnable task, long delay, long period) {
+        if (!folia) return new BukkitTaskHandle(Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period));
+        return new FoliaTaskHandle(Folia.invoke(Folia.entityRunAtFixedRate, Folia.entityScheduler(entity), plugin, Folia.consumer(task), null, Math.max(delay, 1), Math.max(period, 1)));
+    }
+
+    /**
+     * Runs the task asynchronously after the delay.
+     */
+    public static @NotNull Task runAsyncLater(@NotNull Plugin plugin, @NotNull Runnable task, long delay) {
+        if (!folia) return new BukkitTaskHandle(Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, task, delay));
+        return new FoliaTaskHandle(Folia.invoke(Folia.asyncRunDelayed, Folia.asyncScheduler(), plugin, Folia.consumer(task), delay * 50, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Runs the task asynchronously and repeatedly.
+     */
+    public static @NotNull Task runAsyncTimer(@NotNull Plugin plugin, @NotNull Runnable task, long delay, long period) {
+        if (!folia) return new BukkitTaskHandle(Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, delay, period));
+        return new FoliaTaskHandle(Folia.invoke(Folia.asyncRunAtFixedRate, Folia.asyncScheduler(), plugin, Folia.consumer(task), delay * 50, Math.max(period, 1) * 50, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * A scheduled task, either a bukkit task or a Folia scheduled task.
+     */
+    public interface Task {
+        void cancel();
+
+        boolean isCancelled();
+    }
+
+    private record BukkitTaskHandle(@NotNull BukkitTask task) implements Task {
+        @Override
+        public void cancel() {
+            task.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return task.isCancelled();
+        }
+    }
+
+    /**
+     * @param task The scheduled task, or null if the entity it was scheduled for was already removed.
+     */
+    private record FoliaTaskHandle(Object task) implements Task {
+        @Override
+        public void cancel() {
+            if (task != null) Folia.invoke(Folia.taskCancel, task);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return task == null || (boolean) Folia.invoke(Folia.taskIsCancelled, task);
+        }
+    }
+
+    /**
+     * The methods of Folia schedulers, only loaded on Folia.
+     */
+    private static final class Folia {
+        private static final @NotNull Method isOwnedByCurrentRegionLocation;
+        private static final @NotNull Method isOwnedByCurrentRegionEntity;
+        private static final @NotNull Method getGlobalRegionScheduler;
+        private static final @NotNull Method getRegionScheduler;
+        private static final @NotNull Method getAsyncScheduler;
+        private static final @NotNull Method getEntityScheduler;
+        private static final @NotNull Method globalRun;
+        private static final @NotNull Method globalRunDelayed;
+        private static final @NotNull Method globalRunAtFixedRate;
+        private static final @NotNull Method regionRun;
+        private static final @NotNull Method entityRunDelayed;
+        private static final @NotNull Method entityRunAtFixedRate;
+        private static final @NotNull Method asyncRunDelayed;
+        private static final @NotNull Method asyncRunAtFixedRate;
+        private static final @NotNull Method taskCancel;
+        private static final @NotNull Method taskIsCancelled;
+
+        static {
+            try {
+                String schedulers = "io.papermc.paper.threadedregions.scheduler.";
+                Class<?> global = Class.forName(schedulers + "GlobalRegionScheduler");
+                Class<?> region = Class.forName(schedulers + "RegionScheduler");
+                Class<?> entity = Class.forName(schedulers + "EntityScheduler");
+                Class<?> async = Class.forName(schedulers + "AsyncScheduler");
+                Class<?> task = Class.forName(schedulers + "ScheduledTask");
+
+                isOwnedByCurrentRegionLocation = Bukkit.class.getMethod("isOwnedByCurrentRegion", Location.class);
+                isOwnedByCurrentRegionEntity = Bukkit.class.getMethod("isOwnedByCurrentRegion", Entity.class);
+                getGlobalRegionScheduler = Bukkit.class.getMethod("getGlobalRegionScheduler");
+                getRegionScheduler = Bukkit.class.getMethod("getRegionScheduler");
+                getAsyncScheduler = Bukkit.class.getMethod("getAsyncScheduler");
+                getEntityScheduler = Entity.class.getMethod("getScheduler");
+                globalRun = global.getMethod("run", Plugin.class, Consumer.class);
+                globalRunDelayed = global.getMethod("runDelayed", Plugin.class, Consumer.class, long.class);
+                globalRunAtFixedRate = global.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+                regionRun = region.getMethod("run", Plugin.class, Location.class, Consumer.class);
+                entityRunDelayed = entity.getMethod("runDelayed", Plugin.class, Consumer.class, Runnable.class, long.class);
+                entityRunAtFixedRate = entity.getMethod("runAtFixedRate", Plugin.class, Consumer.class, Runnable.class, long.class, long.class);
+                asyncRunDelayed = async.getMethod("runDelayed", Plugin.class, Consumer.class, long.class, TimeUnit.class);
+                asyncRunAtFixedRate = async.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class, TimeUnit.class);
+                taskCancel = task.getMethod("cancel");
+                taskIsCancelled = task.getMethod("isCancelled");
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private static Object invoke(@NotNull Method method, Object instance, Object... args) {
+            try {
+                return method.invoke(instance, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+                throw new IllegalStateException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static @NotNull Consumer<Object> consumer(@NotNull Runnable task) {
+            return scheduledTask -> task.run();
+        }
+
+        private static Object globalScheduler() {
+            return invoke(getGlobalRegionScheduler, null);
+        }
+
+        private static Object regionScheduler() {
+            return invoke(getRegionScheduler, null);
+        }
+
+        private static Object asyncScheduler() {
+            return invoke(getAsyncScheduler, null);
+        }
+
+        private static Object entityScheduler(@NotNull Entity entity) {
+            return invoke(getEntityScheduler, entity);
+        }
+    }
+}
@@ -30,7 +30,6 @@ import com.epicnicity322.playmoresounds.core.config.Configurations;
 import com.epicnicity322.yamlhandler.YamlConfigurationLoader;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
-import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -48,8 +47,8 @@ public final class UpdateManager {
     private static final @NotNull UUID deleteConfirmationUniqueId = UUID.randomUUID();
     private static @Nullable Version latestVersion;
     private static URL spigetURL;
-    private static @Nullable BukkitTask availableNotifierTask;
-    private static @Nullable BukkitTask updateCheckerTask;
+    private static @Nullable TaskScheduler.Task availableNotifierTask;
+    private static @Nullable TaskScheduler.Task updateCheckerTask;
     private static final @NotNull Runnable updateChecker = () -> {
         if (updateAvailable.get()) {
             if (updateCheckerTask != null) {
@@ -96,7 +95,7 @@ public final class UpdateManager {
                 updateCheckerTask.cancel();
             }
 
-            updateCheckerTask = Bukkit.getScheduler().runTaskTimerAsynchronously(instance, updateChecker, ticks, ticks);
+            updateCheckerTask = TaskScheduler.runAsyncTimer(instance, updateChecker, ticks, ticks);
         } else {
             if (updateCheckerTask != null) {
                 updateCheckerTask.cancel();
@@ -107,11 +106,11 @@ public final class UpdateManager {
         }
     }
 
-    private static synchronized @Nullable BukkitTask getAvailableNotifierTask() {
+    private static synchronized @Nullable TaskScheduler.Task getAvailableNotifierTask() {
         return availableNotifierTask;
     }
 
-    private static synchronized void setAvailableNotifierTask(@Nullable BukkitTask availableNotifierTask) {
+    private static synchronized void setAvailableNotifierTask(@Nullable TaskScheduler.Task availableNotifierTask) {
         UpdateManager.availableNotifierTask = availableNotifierTask;
     }
 
@@ -142,7 +141,7 @@ public final class UpdateManager {
                 }
 
                 if (getAvailableNotifierTask() == null && PlayMoreSounds.getInstance() != null) {
-                    setAvailableNotifierTask(Bukkit.getScheduler().runTaskTimerAsynchronously(PlayMoreSounds.getInstance(),
+                    setAvailableNotifierTask(TaskScheduler.runAsyncTimer(PlayMoreSounds.getInstance(),
                             () -> PlayMoreSounds.getConsoleLogger().log("&2An update is available for PlayMoreSounds. Download it using &f/pms update download&2."), log ? 36000 : 0, 36000));
                 }
             } else {
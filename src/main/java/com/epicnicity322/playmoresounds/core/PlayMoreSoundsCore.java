@@ -34,6 +34,7 @@ import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public final class PlayMoreSoundsCore {
     private static final @NotNull Path folder;
@@ -74,7 +75,20 @@ public final class PlayMoreSoundsCore {
 
         System.setProperty("PlayMoreSounds Enabled", "true");
 
-        // Creating available sounds file
+        // SoundType has more than a thousand constants, so it's initialized and the file written in another thread.
+        //Errors are reported here, including errors initializing SoundType, which other threads only see as a
+        //NoClassDefFoundError without a cause.
+        CompletableFuture.runAsync(PlayMoreSoundsCore::writeAvailableSounds).exceptionally(t -> {
+            errorHandler.report(t, "Fail to create available sounds file:");
+            return null;
+        });
+    }
+
+    /**
+     * Writes the sound categories and sound types available in this version to "available sounds.txt", if the file
+     * does not have this content already.
+     */
+    private static void writeAvailableSounds() {
         var availableSounds = folder.resolve("available sounds.txt");
         StringBuilder data = new StringBuilder("""
                 A list of sounds and sound categories available in this minecraft version.
@@ -96,8 +110,12 @@ public final class PlayMoreSoundsCore {
         }
 
         try {
+            String content = data.toString();
+
+            if (Files.exists(availableSounds) && content.equals(Files.readString(availableSounds))) return;
+
             Files.deleteIfExists(availableSounds);
-            PathUtils.write(data.toString(), availableSounds);
+            PathUtils.write(content, availableSounds);
         } catch (IOException ex) {
             errorHandler.report(ex, "Fail to create available sounds file:");
         }
@@ -0,0 +1,118 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.core.config;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Detects which configuration files changed since they were last checked, so reloads only apply what changed.
+ * Configurations are compared by the checksum of their contents, and folders by the names, sizes and last modified
+ * times of their files.
+ */
+public final class ConfigurationChanges {
+    private static final long MISSING = -1;
+    private static final @NotNull HashMap<Path, Long> states = new HashMap<>();
+
+    private ConfigurationChanges() {
+    }
+
+    /**
+     * Checks the files of every configuration and remembers their current state for the next check.
+     *
+     * @return The configurations whose files changed, were created or deleted since the last check. On the first check,
+     * every configuration is returned.
+     */
+    public static synchronized @NotNull EnumSet<Configurations> poll() {
+        EnumSet<Configurations> changed = EnumSet.noneOf(Configurations.class);
+
+        for (Configurations configuration : Configurations.values()) {
+            Path path = configuration.getConfigurationHolder().getPath();
+            long checksum = checksum(path);
+            Long previous = states.put(path, checksum);
+
+            if (previous == null || previous != checksum) changed.add(configuration);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Checks the files in the folder and remembers their current state for the next check.
+     *
+     * @param folder The folder to check.
+     * @return Whether any file in the folder was created, deleted or modified since the last check of this folder. True
+     * on the first check.
+     */
+    public static synchronized boolean pollFolder(@NotNull Path folder) {
+        long state = folderState(folder);
+        Long previous = states.put(folder, state);
+        return previous == null || previous != state;
+    }
+
+    /**
+     * Forgets the state of every file, so the next check reports everything as changed.
+     */
+    public static synchronized void reset() {
+        states.clear();
+    }
+
+    private static long checksum(@NotNull Path path) {
+        if (!Files.exists(path)) return MISSING;
+
+        try {
+            var crc = new CRC32();
+            crc.update(Files.readAllBytes(path));
+            return crc.getValue();
+        } catch (IOException e) {
+            // Unreadable files are always reported as changed, so loading them reports the error.
+            return System.nanoTime();
+        }
+    }
+
+    private static long folderState(@NotNull Path folder) {
+        if (!Files.isDirectory(folder)) return MISSING;
+
+        try (Stream<Path> files = Files.list(folder)) {
+            long[] state = {0};
+
+            files.forEach(file -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    // Order independent, since the order of the listing is not guaranteed.
+                    state[0] += file.getFileName().hashCode() * 31L * 31L + attributes.size() * 31L + attributes.lastModifiedTime().toMillis();
+                } catch (IOException e) {
+                    state[0] += System.nanoTime();
+                }
+            });
+
+            return state[0];
+        } catch (IOException e) {
+            return System.nanoTime();
+        }
+    }
+}
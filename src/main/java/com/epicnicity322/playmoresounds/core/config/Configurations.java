@@ -429,6 +429,52 @@ public enum Configurations {
             "    Glowing: true\n" +
             "    Material: FEATHER\n" +
             "\n" +
+            "# World time triggers configuration:\n" +
+            "World Time Triggers:\n" +
+            "  # What to do with the triggers that were skipped because the time of the world jumped, like with /time\n" +
+            "  #set or when players sleep through the night:\n" +
+            "  # NONE: Skipped triggers don't play.\n" +
+            "  # LATEST: Only the last skipped trigger plays.\n" +
+            "  # ALL: Every skipped trigger plays, once each.\n" +
+            "  Catch Up: LATEST\n" +
+            "\n" +
+            "# Settings about how sounds are played.\n" +
+            "Performance:\n" +
+            "  # Child sounds of a rich sound are played together, finding the players in range only once for every\n" +
+            "  #radius, and a single PlayBatchSoundEvent is called for them. PlaySoundEvent is still called for each\n" +
+            "  #child sound if an addon asks for it.\n" +
+            "  # Enable this to always call PlaySoundEvent for each child sound, like in older versions.\n" +
+            "  Per Child Sound Events: false\n" +
+            "  # Limits the sounds a single player can receive in a tick, protecting the network and the player's client\n" +
+            "  #when many sounds play at once, like in mob farms.\n" +
+            "  Voice Budget:\n" +
+            "    Enabled: true\n" +
+            "    # Identical sounds (same sound, category, volume and pitch) played in the same block in the same tick are\n" +
+            "    #merged into one and don't count again.\n" +
+            "    Max Sounds Per Tick: 24\n" +
+            "    # Sounds of these triggers can go past the max by this amount, so they are still heard when a player\n" +
+            "    #is receiving too many sounds. The names are the same as in sounds.yml.\n" +
+            "    Priorities:\n" +
+            "      First Join: 8\n" +
+            "      Join Server: 8\n" +
+            "      Player Death: 8\n" +
+            "  # The time in ticks the permissions checked when playing sounds are remembered, as permission plugins\n" +
+            "  #can make these checks expensive. Set to 0 to always ask the permission plugin.\n" +
+            "  Permission Cache Ticks: 20\n" +
+            "  # Sounds played outside the main thread, like chat sounds, wait in a queue and are all played on the next\n" +
+            "  #tick.\n" +
+            "  Play Queue:\n" +
+            "    # The max amount of sounds waiting in the queue.\n" +
+            "    Capacity: 4096\n" +
+            "    # What to do when a sound is played and the queue is full: DROP_NEWEST drops the sound being played,\n" +
+            "    #DROP_OLDEST drops the sound that is waiting the longest.\n" +
+            "    Overflow: DROP_OLDEST\n" +
+            "  # Regions and biomes of players that join are evaluated in a queue, spreading the work across ticks when\n" +
+            "  #many players join at once.\n" +
+            "  Join Queue:\n" +
+            "    # The max time in milliseconds the queue can take in a tick. Set to 0 to evaluate players as they join.\n" +
+            "    Tick Budget: 5\n" +
+            "\n" +
             "# Update scheduler\n" +
             "Updater:\n" +
             "  Enabled: true\n" +
@@ -2552,9 +2598,17 @@ public enum Configurations {
             "\n" +
             "# When a player changes the item slot of the hotbar.\n" +
             "# This sound is cancellable.\n" +
+            "# Scrolling through the hotbar changes the held item many times in a row, so this sound has a cooldown: a\n" +
+            "#player only plays it again once the ticks of the cooldown are over. With the mode DROP, the sound is\n" +
+            "#ignored during the cooldown. With the mode MERGE, the sound is ignored and the cooldown restarts, so a\n" +
+            "#whole scroll plays the sound once.\n" +
+            "# Entity Jump, Inventory Click, Player Jump, Player Swing and Toggle Sneak can have a cooldown too.\n" +
             "Change Held Item:\n" +
             "  Enabled: true\n" +
             "  Cancellable: false\n" +
+            "  Cooldown:\n" +
+            "    Ticks: 2\n" +
+            "    Mode: DROP\n" +
             "  Sounds:\n" +
             "    '1':\n" +
             "      Pitch: 2.0\n" +
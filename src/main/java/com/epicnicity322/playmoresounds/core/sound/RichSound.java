@@ -24,8 +24,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class RichSound<T extends Sound> {
+    private final @NotNull AtomicInteger modifications = new AtomicInteger();
     private final @NotNull String name;
     private final @NotNull Collection<T> childSounds;
     private final @NotNull Collection<T> unmodifiableChildSounds;
@@ -82,6 +84,24 @@ public abstract class RichSound<T extends Sound> {
         return name;
     }
 
+    /**
+     * A counter that increases every time a property of this rich sound, of its child sounds or of their options
+     * changes, or when a child sound is added or removed, so compiled representations of this rich sound know when they
+     * are outdated. Changes to other rich sounds don't change this count.
+     *
+     * @return The current modification count of this rich sound.
+     */
+    public int getModificationCount() {
+        int count = modifications.get();
+        for (T childSound : childSounds) count += childSound.getModificationCount();
+        return count;
+    }
+
+    private void childRemoved(@NotNull T childSound) {
+        // Counting the modifications of the removed sound, so the count never goes back.
+        modifications.addAndGet(1 + childSound.getModificationCount());
+    }
+
     public final @Nullable ConfigurationSection getSection() {
         return section;
     }
@@ -92,6 +112,7 @@ public abstract class RichSound<T extends Sound> {
 
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
+        modifications.incrementAndGet();
     }
 
     public boolean isCancellable() {
@@ -100,6 +121,7 @@ public abstract class RichSound<T extends Sound> {
 
     public void setCancellable(boolean cancellable) {
         this.cancellable = cancellable;
+        modifications.incrementAndGet();
     }
 
     public final @NotNull Collection<T> getChildSounds() {
@@ -117,6 +139,7 @@ public abstract class RichSound<T extends Sound> {
 
     public boolean addChildSound(@NotNull T childSound) {
         if (getChildSound(childSound.getId()) == null) {
+            modifications.incrementAndGet();
             return childSounds.add(childSound);
         } else {
             return false;
@@ -124,11 +147,33 @@ public abstract class RichSound<T extends Sound> {
     }
 
     public boolean removeChildSound(@NotNull T childSound) {
-        return childSounds.remove(childSound);
+        for (Iterator<T> iterator = childSounds.iterator(); iterator.hasNext(); ) {
+            T sound = iterator.next();
+
+            if (sound.equals(childSound)) {
+                childRemoved(sound);
+                iterator.remove();
+                return true;
+            }
+        }
+
+        return false;
     }
 
     public boolean removeChildSound(@NotNull String id) {
-        return childSounds.removeIf(sound -> sound.getId().equals(id));
+        boolean removed = false;
+
+        for (Iterator<T> iterator = childSounds.iterator(); iterator.hasNext(); ) {
+            T sound = iterator.next();
+
+            if (sound.getId().equals(id)) {
+                childRemoved(sound);
+                iterator.remove();
+                removed = true;
+            }
+        }
+
+        return removed;
     }
 
     /**
@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Sound {
     private static final @NotNull HashMap<String, SoundCategory> categories = new HashMap<>(SoundCategory.values().length);
@@ -38,6 +39,7 @@ public class Sound {
     }
 
     private final @NotNull String id;
+    private final @NotNull AtomicInteger modifications = new AtomicInteger();
     private final @Nullable ConfigurationSection section;
     private @Nullable SoundType soundType;
     private @NotNull String sound;
@@ -160,6 +162,16 @@ public class Sound {
         }
     }
 
+    /**
+     * A counter that increases every time a property of this sound or of its {@link SoundOptions} changes, so compiled
+     * representations of sounds know when they are outdated.
+     *
+     * @return The current modification count of this sound.
+     */
+    public int getModificationCount() {
+        return modifications.get() + options.getModificationCount();
+    }
+
     /**
      * Gets the ID of this sound, can be any type of string.
      * <p>
@@ -204,6 +216,7 @@ public class Sound {
 
         this.sound = sound.get();
         this.soundType = soundType;
+        modifications.incrementAndGet();
     }
 
     /**
@@ -235,6 +248,7 @@ public class Sound {
         } else {
             this.sound = sound;
         }
+        modifications.incrementAndGet();
     }
 
     /**
@@ -253,6 +267,7 @@ public class Sound {
      */
     public void setCategory(@Nullable SoundCategory category) {
         this.category = Objects.requireNonNullElse(category, SoundCategory.MASTER);
+        modifications.incrementAndGet();
     }
 
     /**
@@ -267,6 +282,7 @@ public class Sound {
      */
     public void setVolume(float volume) {
         this.volume = volume;
+        modifications.incrementAndGet();
     }
 
     /**
@@ -281,6 +297,7 @@ public class Sound {
      */
     public void setPitch(float pitch) {
         this.pitch = pitch;
+        modifications.incrementAndGet();
     }
 
     /**
@@ -299,6 +316,7 @@ public class Sound {
         } else {
             this.delay = delay;
         }
+        modifications.incrementAndGet();
     }
 
     /**
@@ -314,6 +332,8 @@ public class Sound {
      * @param options The options or null for default options.
      */
     public void setOptions(@Nullable SoundOptions options) {
+        // Counting the modifications of the previous options, so the count never goes back.
+        modifications.addAndGet(1 + this.options.getModificationCount());
         this.options = Objects.requireNonNullElseGet(options, () -> new SoundOptions(false, null, null, 0.0));
     }
 
@@ -23,8 +23,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SoundOptions {
+    private final @NotNull AtomicInteger modifications = new AtomicInteger();
     private boolean ignoresDisabled;
     private @Nullable String permissionToListen;
     private @Nullable String permissionRequired;
@@ -67,6 +69,16 @@ public class SoundOptions {
         this.radius = section.getNumber("Radius").orElse(0).doubleValue();
     }
 
+    /**
+     * A counter incremented every time an option changes, so compiled representations of sounds know when they are
+     * outdated.
+     *
+     * @return The current modification count of these options.
+     */
+    public int getModificationCount() {
+        return modifications.get();
+    }
+
     /**
      * If Ignores Disabled option is enabled.
      *
@@ -78,6 +90,7 @@ public class SoundOptions {
 
     public void setIgnoresDisabled(boolean ignoresDisabled) {
         this.ignoresDisabled = ignoresDisabled;
+        modifications.incrementAndGet();
     }
 
     /**
@@ -93,6 +106,7 @@ public class SoundOptions {
 
     public void setPermissionRequired(@Nullable String permissionRequired) {
         this.permissionRequired = permissionRequired != null && permissionRequired.isBlank() ? null : permissionRequired;
+        modifications.incrementAndGet();
     }
 
     /**
@@ -109,6 +123,7 @@ public class SoundOptions {
 
     public void setPermissionToListen(@Nullable String permissionToListen) {
         this.permissionToListen = permissionToListen != null && permissionToListen.isBlank() ? null : permissionToListen;
+        modifications.incrementAndGet();
     }
 
     /**
@@ -132,6 +147,7 @@ public class SoundOptions {
      */
     public void setRadius(double radius) {
         this.radius = radius;
+        modifications.incrementAndGet();
     }
 
     /**
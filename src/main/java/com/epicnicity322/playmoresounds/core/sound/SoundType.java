@@ -1363,12 +1363,8 @@ public enum SoundType {
 
     SoundType(String... versionDependentNames) {
         this.versionDependentNames = versionDependentNames;
-
-        // If the server is running on a newer unsupported version, then get sound made for the maximum supported version.
-        if (StaticFields.greaterThanMax)
-            versionDependentName = getSound(getMaxSupportedVersion()).orElse(null);
-        else
-            versionDependentName = getSound(EpicPluginLib.Platform.getVersion()).orElse(null);
+        // The version is parsed once in StaticFields, so constants only compare ints to find their sound.
+        versionDependentName = getSound(StaticFields.versionKey);
 
         if (versionDependentName != null) {
             StaticFields.availableSoundTypes.add(this);
@@ -1422,21 +1418,52 @@ public enum SoundType {
      * @return An optional with the vanilla sound name on this version.
      */
     public @NotNull Optional<String> getSound(@NotNull Version version) {
-        String sound = null;
+        String string = version.getVersion();
+        return Optional.ofNullable(getSound(versionKey(string, 0, string.length(), false)));
+    }
 
+    private @Nullable String getSound(int versionKey) {
         for (String versionDependentName : versionDependentNames) {
-            int spaceIndex = versionDependentName.indexOf(' ');
             int hyphenIndex = versionDependentName.indexOf('-');
-            var soundMinVersion = new Version(versionDependentName.substring(0, hyphenIndex));
-            var soundMaxVersion = new Version(versionDependentName.substring(hyphenIndex + 1, spaceIndex));
+            int spaceIndex = versionDependentName.indexOf(' ', hyphenIndex);
+
+            if (versionKey >= versionKey(versionDependentName, 0, hyphenIndex, false)
+                    && versionKey <= versionKey(versionDependentName, hyphenIndex + 1, spaceIndex, true))
+                return versionDependentName.substring(spaceIndex + 1);
+        }
+
+        return null;
+    }
+
+    /**
+     * Parses a version like 1.19 or 1.19.2 between the indexes of the string into an int that can be compared, without
+     * allocating. Only the first three parts are parsed, missing parts are 0, or 99 if this is an upper bound, so an
+     * upper bound of 1.19 includes every 1.19.x version.
+     */
+    private static int versionKey(@NotNull String string, int start, int end, boolean upperBound) {
+        int key = 0, parts = 0, part = 0;
 
-            if (version.compareTo(soundMinVersion) >= 0 && (version.getVersion().startsWith(soundMaxVersion.getVersion()) || version.compareTo(soundMaxVersion) <= 0)) {
-                sound = versionDependentName.substring(spaceIndex + 1);
+        for (int i = start; i < end && parts < 3; ++i) {
+            char c = string.charAt(i);
+
+            if (c == '.') {
+                key = key * 100 + Math.min(part, 99);
+                part = 0;
+                ++parts;
+            } else if (c >= '0' && c <= '9') {
+                part = part * 10 + (c - '0');
+            } else {
                 break;
             }
         }
 
-        return Optional.ofNullable(sound);
+        if (parts < 3) {
+            key = key * 100 + Math.min(part, 99);
+            ++parts;
+        }
+        for (; parts < 3; ++parts) key = key * 100 + (upperBound ? 99 : 0);
+
+        return key;
     }
 
     private static final class StaticFields {
@@ -1448,7 +1475,18 @@ public enum SoundType {
          */
         private static final boolean greaterThanMax = !EpicPluginLib.Platform.getVersion().getVersion().startsWith(maxSupportedVersion.getVersion()) && EpicPluginLib.Platform.getVersion().compareTo(maxSupportedVersion) > 0;
 
+        /**
+         * The version sounds are got for. If the server is running on a newer unsupported version, then sounds made for
+         * the maximum supported version are used.
+         */
+        private static final int versionKey;
+
         private static final @NotNull LinkedHashSet<String> availableSoundNames = new LinkedHashSet<>();
         private static final @NotNull LinkedHashSet<SoundType> availableSoundTypes = new LinkedHashSet<>();
+
+        static {
+            String version = (greaterThanMax ? maxSupportedVersion : EpicPluginLib.Platform.getVersion()).getVersion();
+            versionKey = versionKey(version, 0, version.length(), false);
+        }
     }
 }
@@ -0,0 +1,317 @@
+/*
+ * PlayMoreSounds - A bukkit plugin that manages and plays sounds.
+ * Copyright (C) 2022 Christiano Rangel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.epicnicity322.playmoresounds.core.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Matches a message against many text criteria at once. The supported filters are the ones of chat sounds.yml and
+ * commands.yml:
+ * <ul>
+ * <li>Starts With - The message starts with the criterion, case-sensitive.</li>
+ * <li>Ends With - The message ends with the criterion, case-sensitive.</li>
+ * <li>Contains - The lower case message contains the lower case criterion as a whole word, as in regex {@code \b}.</li>
+ * <li>Contains SubString - The lower case message contains the lower case criterion anywhere.</li>
+ * <li>Equals Ignore Case - The message equals the criterion ignoring case.</li>
+ * <li>Equals Exactly - The message equals the criterion.</li>
+ * </ul>
+ * Criteria are compiled once: all Contains and Contains SubString criteria into a single Aho–Corasick automaton, Starts
+ * With and Ends With criteria into a prefix and a suffix trie, and Equals criteria into hash maps. A message is then
+ * matched in one pass over it, no matter how many criteria there are.
+ *
+ * @param <T> The value associated to each criterion.
+ */
+public final class FilterMatcher<T> {
+    private static final int[] NO_IDS = new int[0];
+    private final @NotNull List<T> values;
+    private final @NotNull Trie prefixes = new Trie();
+    private final @NotNull Trie suffixes = new Trie();
+    private final @NotNull Automaton substrings;
+    private final @NotNull HashMap<String, int[]> equalsExactly = new HashMap<>();
+    /**
+     * Equals Ignore Case criteria by their {@link #foldCase(String) folded case}.
+     */
+    private final @NotNull HashMap<String, int[]> equalsIgnoreCase = new HashMap<>();
+    /**
+     * Whether the criterion with this id is a whole word Contains criterion, rather than Contains SubString.
+     */
+    private final boolean[] wholeWord;
+
+    /**
+     * Compiles the criteria. Criteria with unknown filters are ignored.
+     *
+     * @param criteria The criteria in priority order.
+     */
+    public FilterMatcher(@NotNull List<Criterion<T>> criteria) {
+        int size = criteria.size();
+        var values = new ArrayList<T>(size);
+        var substringPatterns = new LinkedHashMap<String, int[]>();
+        wholeWord = new boolean[size];
+
+        for (int id = 0; id < size; ++id) {
+            Criterion<T> criterion = criteria.get(id);
+            String text = criterion.criterion();
+            values.add(criterion.value());
+
+            switch (criterion.filter()) {
+                case "Starts With" -> prefixes.add(text, id);
+                case "Ends With" -> suffixes.add(new StringBuilder(text).reverse().toString(), id);
+                case "Contains" -> {
+                    wholeWord[id] = true;
+                    substringPatterns.merge(text.toLowerCase(), new int[]{id}, FilterMatcher::concat);
+                }
+                case "Contains SubString" -> substringPatterns.merge(text.toLowerCase(), new int[]{id}, FilterMatcher::concat);
+                case "Equals Ignore Case" -> equalsIgnoreCase.merge(foldCase(text), new int[]{id}, FilterMatcher::concat);
+                case "Equals Exactly" -> equalsExactly.merge(text, new int[]{id}, FilterMatcher::concat);
+                default -> {
+                }
+            }
+        }
+
+        this.values = Collections.unmodifiableList(values);
+        substrings = new Automaton(substringPatterns);
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] c = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, c, a.length, b.length);
+        return c;
+    }
+
+    /**
+     * Folds the case of each character the same way {@link String#equalsIgnoreCase(String)} compares them, so two
+     * strings have the same folded case only if they are equal ignoring case. Unlike {@link String#toLowerCase()}, the
+     * length never changes.
+     */
+    private static @NotNull String foldCase(@NotNull String s) {
+        char[] chars = s.toCharArray();
+        for (int i = 0; i < chars.length; ++i) chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        return new String(chars);
+    }
+
+    /**
+     * Same as {@code \b} in java regex: word characters are letters, digits and underscore.
+     */
+    private static boolean isWordChar(@NotNull String s, int index) {
+        if (index < 0 || index >= s.length()) return false;
+        char c = s.charAt(index);
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isBoundary(@NotNull String s, int index) {
+        return isWordChar(s, index - 1) != isWordChar(s, index);
+    }
+
+    /**
+     * @return Whether there are no criteria to match.
+     */
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * Finds every criterion the message matches.
+     *
+     * @param message The message to match.
+     * @return The values of the matched criteria, in the same order the criteria were given.
+     */
+    public @NotNull List<T> match(@NotNull String message) {
+        var matched = new BitSet(values.size());
+
+        prefixes.collect(message, false, matched);
+        suffixes.collect(message, true, matched);
+
+        int[] ids = equalsExactly.get(message);
+        if (ids != null) for (int id : ids) matched.set(id);
+
+        if (!equalsIgnoreCase.isEmpty()) {
+            ids = equalsIgnoreCase.get(foldCase(message));
+            if (ids != null) for (int id : ids) matched.set(id);
+        }
+
+        if (!substrings.isEmpty()) {
+            String lowerCase = message.toLowerCase();
+            substrings.collect(lowerCase, (id, start, end) -> {
+                if (!wholeWord[id] || (isBoundary(lowerCase, start) && isBoundary(lowerCase, end))) matched.set(id);
+            });
+        }
+
+        if (matched.isEmpty()) return Collections.emptyList();
+
+        var result = new ArrayList<T>(matched.cardinality());
+        for (int id = matched.nextSetBit(0); id >= 0; id = matched.nextSetBit(id + 1)) result.add(values.get(id));
+        return result;
+    }
+
+    /**
+     * A criterion to be compiled.
+     *
+     * @param filter    The name of the filter, as in chat sounds.yml.
+     * @param criterion The text the message is compared to.
+     * @param value     The value to return if the message matches.
+     * @param <T>       The value type.
+     */
+    public record Criterion<T>(@NotNull String filter, @NotNull String criterion, @NotNull T value) {
+    }
+
+    private interface MatchConsumer {
+        void accept(int id, int start, int end);
+    }
+
+    /**
+     * A character trie where each node may end criteria.
+     */
+    private static final class Trie {
+        private final @NotNull Node root = new Node();
+        private boolean empty = true;
+
+        private void add(@NotNull String text, int id) {
+            Node node = root;
+            for (int i = 0; i < text.length(); ++i) node = node.child(text.charAt(i), true);
+            node.ids = concat(node.ids, new int[]{id});
+            empty = false;
+        }
+
+        private void collect(@NotNull String message, boolean reversed, @NotNull BitSet matched) {
+            if (empty) return;
+
+            Node node = root;
+            int length = message.length();
+
+            for (int i = 0; ; ++i) {
+                for (int id : node.ids) matched.set(id);
+                if (i == length) return;
+                node = node.child(message.charAt(reversed ? length - i - 1 : i), false);
+                if (node == null) return;
+            }
+        }
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int[] ids = NO_IDS;
+        // Only used by the automaton.
+        private Node fail;
+        private Node output;
+        private int depth;
+
+        private Node child(char c, boolean create) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) return children[index];
+            if (!create) return null;
+
+            index = -index - 1;
+            var node = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newKeys[index] = c;
+            newChildren[index] = node;
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+    }
+
+    /**
+     * Aho–Corasick automaton that reports every occurrence of every pattern, with the start and end of the occurrence.
+     */
+    private static final class Automaton {
+        private final @NotNull Node root = new Node();
+        private final boolean empty;
+
+        /**
+         * Each node's fail link points to the node of the longest proper suffix that is also in the automaton, and the
+         * output link to the nearest node reachable by fail links that ends a pattern.
+         */
+        private Automaton(@NotNull Map<String, int[]> patterns) {
+            empty = patterns.isEmpty();
+
+            for (Map.Entry<String, int[]> pattern : patterns.entrySet()) {
+                Node node = root;
+                String text = pattern.getKey();
+
+                for (int i = 0; i < text.length(); ++i) {
+                    node = node.child(text.charAt(i), true);
+                    node.depth = i + 1;
+                }
+
+                node.ids = pattern.getValue();
+            }
+
+            // Building fail links breadth first.
+            var queue = new ArrayDeque<Node>();
+
+            for (Node child : root.children) {
+                child.fail = root;
+                queue.add(child);
+            }
+
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                Node nodeFail = node.fail;
+                node.output = nodeFail.ids.length != 0 ? nodeFail : nodeFail.output;
+
+                for (int i = 0; i < node.keys.length; ++i) {
+                    char c = node.keys[i];
+                    Node child = node.children[i];
+                    Node f = nodeFail;
+
+                    while (f != root && f.child(c, false) == null) f = f.fail;
+                    Node childFail = f.child(c, false);
+                    child.fail = childFail == null || childFail == child ? root : childFail;
+                    queue.add(child);
+                }
+            }
+        }
+
+        private boolean isEmpty() {
+            return empty;
+        }
+
+        private void collect(@NotNull String text, @NotNull MatchConsumer consumer) {
+            // Empty patterns are found at every position.
+            if (root.ids.length != 0)
+                for (int position = 0; position <= text.length(); ++position)
+                    for (int id : root.ids) consumer.accept(id, position, position);
+
+            Node node = root;
+
+            for (int i = 0; i < text.length(); ++i) {
+                char c = text.charAt(i);
+                Node next;
+
+                while ((next = node.child(c, false)) == null && node != root) node = node.fail;
+                node = next == null ? root : next;
+
+                for (Node out = node; out != null && out != root; out = out.output) {
+                    int end = i + 1;
+                    int start = end - out.depth;
+                    for (int id : out.ids) consumer.accept(id, start, end);
+                }
+            }
+        }
+    }
+}